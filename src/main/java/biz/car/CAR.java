@@ -17,6 +17,10 @@ import biz.car.config.ACS;
  */
 public interface CAR {
 
+	/**
+	 * String constant ".chk" to be used as a file extension.
+	 */
+	String _chk = VAL._chk;
 	/**
 	 * String constant ".conf" to be used as a file extension.
 	 */
@@ -29,14 +33,30 @@ public interface CAR {
 	 * String constant ".default" to be used as a file extension.
 	 */
 	String _default = VAL._default;
+	/**
+	 * String constant ".gz" to be used as a file extension.
+	 */
+	String _gz = VAL._gz;
+	/**
+	 * String constant ".idx" to be used as a file extension.
+	 */
+	String _idx = VAL._idx;
 	/**
 	 * String constant ".jar" to be used as a file extension.
 	 */
 	String _jar = VAL._jar;
+	/**
+	 * String constant ".key" to be used as a file extension.
+	 */
+	String _key = VAL._key;
 	/**
 	 * String constant ".properties" to be used as a file extension.
 	 */
 	String _properties = VAL._properties;
+	/**
+	 * String constant ".rows" to be used as a file extension.
+	 */
+	String _rows = VAL._rows;
 	/**
 	 * String constant ".sql" to be used as a file extension.
 	 */
@@ -49,6 +69,18 @@ public interface CAR {
 	 * Key for the name of a logger appender.
 	 */
 	String APPENDER = VAR.APPENDER;
+	/**
+	 * The key for the CHECKPOINT option of a CSV feeder.<br>
+	 */
+	String CHECKPOINT = VAR.CHECKPOINT;
+	/**
+	 * The key for the CHECKPOINT_INTERVAL option of a CSV feeder.<br>
+	 */
+	String CHECKPOINT_INTERVAL = VAR.CHECKPOINT_INTERVAL;
+	/**
+	 * The key for the DELIVERY option of a dispatching CSV feeder.<br>
+	 */
+	String DELIVERY = VAR.DELIVERY;
 	/**
 	 * The default date format
 	 */
@@ -81,10 +113,22 @@ public interface CAR {
 	 * General purpose constant indicating a successful status.
 	 */
 	String OK = VAL.OK;
+	/**
+	 * The key for the ORDERED option of a parallel CSV feeder.<br>
+	 */
+	String ORDERED = VAR.ORDERED;
 	/**
 	 * Key for the output runtime option
 	 */
 	String OUTPUT = VAR.OUTPUT;
+	/**
+	 * The key for the PARALLEL option of a CSV feeder.<br>
+	 */
+	String PARALLEL = VAR.PARALLEL;
+	/**
+	 * The key for the PARTITION columns of a dispatching CSV feeder.<br>
+	 */
+	String PARTITION = VAR.PARTITION;
 	/**
 	 * The key for the PATH runtime option.<br>
 	 */
@@ -97,4 +141,16 @@ public interface CAR {
 	 * The key for the PERIOD parameter of a timer task.<br>
 	 */
 	String PERIOD = VAR.PERIOD;
+	/**
+	 * The key for the QUEUE_SIZE option of a dispatching CSV feeder.<br>
+	 */
+	String QUEUE_SIZE = VAR.QUEUE_SIZE;
+	/**
+	 * The key for the ROW_CACHE option of a CSV feeder.<br>
+	 */
+	String ROW_CACHE = VAR.ROW_CACHE;
+	/**
+	 * The key for the WORKERS option of a CSV feeder.<br>
+	 */
+	String WORKERS = VAR.WORKERS;
 }
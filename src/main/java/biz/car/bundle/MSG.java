@@ -15,6 +15,13 @@ import biz.car.config.ACS;
  */
 public class MSG {
 
+	public static String CSV_CHECKPOINT_FAILED;
+	public static String CSV_COLUMN_NOT_FOUND;
+	public static String CSV_COLUMN_NOT_IN_HEADER;
+	public static String CSV_FILE_REPLACED;
+	public static String CSV_INDEX_FAILED;
+	public static String CSV_RESUMED;
+	public static String CSV_ROW_CACHE_FAILED;
 	public static String DECLARED_FIELD_NOT_FOUND;
 	public static String EXEC_ABENDED;
 	public static String EXEC_ENDED;
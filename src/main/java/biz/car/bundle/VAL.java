@@ -15,11 +15,16 @@ import biz.car.util.SFI;
  */
 public class VAL {
 
+	public static String _chk;
 	public static String _conf;
 	public static String _csv;
 	public static String _default;
+	public static String _gz;
+	public static String _idx;
 	public static String _jar;
+	public static String _key;
 	public static String _properties;
+	public static String _rows;
 	public static String _sql;
 	public static String dateFormat;
 	public static String DUMMY;
@@ -17,15 +17,24 @@ public class VAR {
 
 	public static String ADDITIVE;
 	public static String APPENDER;
+	public static String CHECKPOINT;
+	public static String CHECKPOINT_INTERVAL;
+	public static String DELIVERY;
 	public static String EXEC;
 	public static String FILE;
 	public static String INPUT;
 	public static String LOGGER;
 	public static String NAME;
+	public static String ORDERED;
 	public static String OUTPUT;
+	public static String PARALLEL;
+	public static String PARTITION;
 	public static String PATH;
 	public static String PATTERN;
 	public static String PERIOD;
+	public static String QUEUE_SIZE;
+	public static String ROW_CACHE;
+	public static String WORKERS;
 
 	// -------------------------------------------------------------------------
 	// Initialize the static fields
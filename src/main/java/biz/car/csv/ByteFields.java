@@ -0,0 +1,70 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CSV field values backed by the UTF-8 bytes of a buffer.<br>
+ * A value is decoded when the field is read for the first time.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class ByteFields extends LazyFields {
+
+	private ByteBuffer buf;
+
+	/**
+	 * Creates a default <code>ByteFields</code> instance.
+	 * 
+	 * @param aBuffer the buffer holding the record bytes
+	 * @param aStarts the start offsets of the fields
+	 * @param anEnds  the end offsets (exclusive) of the fields
+	 */
+	ByteFields(ByteBuffer aBuffer, int[] aStarts, int[] anEnds) {
+		super(aStarts, anEnds);
+
+		buf = aBuffer;
+	}
+
+	/**
+	 * Creates a reusable <code>ByteFields</code> instance.
+	 * 
+	 * @param aSize the number of fields
+	 */
+	ByteFields(int aSize) {
+		super(new int[aSize], new int[aSize]);
+	}
+
+	@Override
+	protected String decode(int aStart, int anEnd) {
+		byte[] l_bytes = new byte[anEnd - aStart];
+		buf.get(aStart, l_bytes);
+		String l_ret = new String(l_bytes, StandardCharsets.UTF_8);
+
+		if (l_ret.indexOf('\r') >= 0) {
+			// line breaks of multiline fields are normalized like in line mode
+			l_ret = l_ret.replace("\r\n", CSV.NEWLINE); //$NON-NLS-1$
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Assigns the fields of a new record to this list.
+	 * 
+	 * @param aBuffer the buffer holding the record bytes
+	 * @param aStarts the start offsets of the fields
+	 * @param anEnds  the end offsets (exclusive) of the fields
+	 * @param aCount  the number of fields of the record
+	 */
+	void refill(ByteBuffer aBuffer, int[] aStarts, int[] anEnds, int aCount) {
+		buf = aBuffer;
+
+		assign(aStarts, anEnds, aCount);
+	}
+}
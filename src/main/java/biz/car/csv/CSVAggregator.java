@@ -0,0 +1,636 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import biz.car.CAR;
+import biz.car.SYS;
+import biz.car.bundle.MSG;
+
+/**
+ * Aggregates the records of a CSV file grouped by one or more columns.
+ * <p>
+ * The aggregates of a group are kept in primitive arrays, a group is only
+ * represented by its key values in a flat array which is indexed by an open
+ * addressing table. The aggregator is a <code>CSVHandler</code>, so it can be
+ * fed by a <code>CSVFeeder</code>. With {@link #aggregate(CSVReader)} the file
+ * is aggregated in parallel: each thread aggregates a part of the file and the
+ * partial results are merged at the end.
+ * <p>
+ * If the estimated memory of the groups exceeds the budget, the groups are
+ * sorted by their keys and written to a temporary file. The files are merged
+ * when the results are written. Numeric values may use a comma as decimal
+ * separator, empty or invalid values are ignored. The results are written in
+ * the order of the group keys.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+public class CSVAggregator implements CSVHandler {
+
+	/**
+	 * The aggregate functions.
+	 */
+	public enum Function {
+		/**
+		 * The number of records, or of non-empty values if a column is given.
+		 */
+		COUNT,
+		/**
+		 * The maximum value.
+		 */
+		MAX,
+		/**
+		 * The minimum value.
+		 */
+		MIN,
+		/**
+		 * The sum of the values.
+		 */
+		SUM
+	}
+
+	/**
+	 * The aggregates of a set of groups.<br>
+	 * The key values of the groups are kept in a flat array, group
+	 * <code>g</code> starts at index <code>g * width</code>. The groups are
+	 * found by an open addressing table of group numbers, so neither keys nor
+	 * group numbers are boxed.
+	 */
+	private class Table {
+
+		long[] counts = new long[16 * functions.size()];
+		int[] hashes = new int[16];
+		String[] keys = new String[16 * width];
+		int[] lookup = new int[32];
+		String[] probe = new String[width];
+		int size;
+		long textBytes;
+		double[] values = new double[16 * functions.size()];
+
+		/**
+		 * Adds a record to its group.
+		 */
+		void add(CSVRecord aRecord) {
+			for (int i = 0; i < width; i++) {
+				probe[i] = CSVField.toDisplayFormat(aRecord.getValue(groupIndex[i]));
+			}
+			int l_base = slot(probe, 0) * functions.size();
+
+			for (int i = 0; i < functions.size(); i++) {
+				int l_ind = valueIndex[i];
+
+				if (l_ind == -1) {
+					counts[l_base + i]++;
+				} else {
+					String l_value = CSVField.toDisplayFormat(aRecord.getValue(l_ind)).trim();
+
+					if (l_value.isEmpty()) {
+						continue;
+					}
+					if (functions.get(i) == Function.COUNT) {
+						// any non-empty value is counted, it need not be a number
+						counts[l_base + i]++;
+					} else {
+						try {
+							update(l_base + i, i, Double.parseDouble(l_value.replace(',', '.')), 1);
+						} catch (NumberFormatException anEx) {
+							// an invalid value is ignored
+						}
+					}
+				}
+			}
+			if (bytes() >= limit) {
+				spill(this);
+			}
+		}
+
+		/**
+		 * @return the estimated memory of the groups in bytes
+		 */
+		long bytes() {
+			return textBytes + 4L * (lookup.length + hashes.length)
+					+ 8L * (keys.length + values.length + counts.length);
+		}
+
+		/**
+		 * Removes all groups.
+		 */
+		void clear() {
+			Arrays.fill(keys, 0, size * width, null);
+			Arrays.fill(lookup, 0);
+			Arrays.fill(values, 0);
+			Arrays.fill(counts, 0);
+			size = 0;
+			textBytes = 0;
+		}
+
+		/**
+		 * Merges the aggregates of another table into this table.
+		 */
+		void combine(Table aTable) {
+			for (int g = 0; g < aTable.size; g++) {
+				int l_base = slot(aTable.keys, g * width) * functions.size();
+				int l_from = g * functions.size();
+
+				for (int i = 0; i < functions.size(); i++) {
+					update(l_base + i, i, aTable.values[l_from + i], aTable.counts[l_from + i]);
+				}
+			}
+			if (bytes() >= limit) {
+				spill(this);
+			}
+		}
+
+		/**
+		 * @return the key values of a group
+		 */
+		List<String> key(int aGroup) {
+			return Arrays.asList(keys).subList(aGroup * width, (aGroup + 1) * width);
+		}
+
+		/**
+		 * @return the group numbers in the order of the keys
+		 */
+		Integer[] sorted() {
+			Integer[] l_ret = new Integer[size];
+
+			for (int i = 0; i < l_ret.length; i++) {
+				l_ret[i] = i;
+			}
+			Arrays.sort(l_ret, (g1, g2) -> compare(keys, g1 * width, keys, g2 * width, width));
+
+			return l_ret;
+		}
+
+		/**
+		 * Looks up the group of a key, a new group is created if necessary.
+		 * 
+		 * @param aKeys   the array holding the key values
+		 * @param anIndex the index of the first key value
+		 * @return the group number
+		 */
+		int slot(String[] aKeys, int anIndex) {
+			int l_hash = hash(aKeys, anIndex, width);
+			int l_mask = lookup.length - 1;
+			int l_ind = l_hash & l_mask;
+
+			while (lookup[l_ind] != 0) {
+				int l_group = lookup[l_ind] - 1;
+
+				if (hashes[l_group] == l_hash && compare(keys, l_group * width, aKeys, anIndex, width) == 0) {
+					return l_group;
+				}
+				l_ind = (l_ind + 1) & l_mask;
+			}
+			int l_ret = size++;
+
+			if (size > hashes.length) {
+				hashes = Arrays.copyOf(hashes, size * 2);
+				keys = Arrays.copyOf(keys, size * 2 * width);
+			}
+			if (size * functions.size() > values.length) {
+				values = Arrays.copyOf(values, size * 2 * functions.size());
+				counts = Arrays.copyOf(counts, size * 2 * functions.size());
+			}
+			hashes[l_ret] = l_hash;
+			System.arraycopy(aKeys, anIndex, keys, l_ret * width, width);
+			lookup[l_ind] = l_ret + 1;
+
+			for (int i = 0; i < width; i++) {
+				textBytes += 48 + 2L * aKeys[anIndex + i].length();
+			}
+			if (size * 2 > lookup.length) {
+				rehash();
+			}
+			return l_ret;
+		}
+
+		/**
+		 * Adds a value and its count to an aggregate.
+		 */
+		void update(int aSlot, int aFunction, double aValue, long aCount) {
+			if (aCount == 0) {
+				return;
+			}
+			switch (functions.get(aFunction)) {
+			case MAX:
+				values[aSlot] = counts[aSlot] == 0 ? aValue : Math.max(values[aSlot], aValue);
+				break;
+			case MIN:
+				values[aSlot] = counts[aSlot] == 0 ? aValue : Math.min(values[aSlot], aValue);
+				break;
+			case SUM:
+				values[aSlot] += aValue;
+				break;
+			default:
+				break;
+			}
+			counts[aSlot] += aCount;
+		}
+
+		private void rehash() {
+			lookup = new int[lookup.length * 2];
+			int l_mask = lookup.length - 1;
+
+			for (int l_group = 0; l_group < size; l_group++) {
+				int l_ind = hashes[l_group] & l_mask;
+
+				while (lookup[l_ind] != 0) {
+					l_ind = (l_ind + 1) & l_mask;
+				}
+				lookup[l_ind] = l_group + 1;
+			}
+		}
+	}
+
+	/**
+	 * An open spill file in a merge.
+	 */
+	private static class Run {
+
+		String[] key;
+		CSVReader rdr;
+		CSVRecord rec;
+	}
+
+	private long budget = CSVSorter.BUDGET;
+	private List<String> columns = new ArrayList<>();
+	private String delim;
+	private List<Function> functions = new ArrayList<>();
+	private List<String> groupBy;
+	private int[] groupIndex;
+	private CSVHeader hdr;
+	private long limit;
+	private List<File> runs = new ArrayList<>();
+	private Table table;
+	private File tempDir;
+	private int[] valueIndex;
+	private int width;
+
+	/**
+	 * Creates a default <code>CSVAggregator</code> instance.
+	 * 
+	 * @param aColumns the names of the group columns
+	 */
+	public CSVAggregator(String... aColumns) {
+		super();
+
+		groupBy = Arrays.stream(aColumns)
+				.map(f -> f.trim())
+				.toList();
+	}
+
+	/**
+	 * Adds an aggregate function. The result column is named after the function
+	 * and the column, e.g. <code>sum(amount)</code>.
+	 * 
+	 * @param aFunction the aggregate function
+	 * @param aColumn   the name of the aggregated column, <code>null</code> to
+	 *                  count the records
+	 * @throws IllegalArgumentException if a column is missing for a function
+	 *                                  other than <code>COUNT</code>
+	 */
+	public void addAggregate(Function aFunction, String aColumn) {
+		if (aColumn == null && aFunction != Function.COUNT) {
+			throw new IllegalArgumentException(aFunction.name());
+		}
+		functions.add(aFunction);
+		columns.add(aColumn == null ? null : aColumn.trim());
+	}
+
+	/**
+	 * Aggregates the remaining records of an open reader in parallel. The
+	 * records are read by a parallel stream, each part is aggregated separately
+	 * and the partial results are merged.
+	 * 
+	 * @param aReader the reader of the CSV file
+	 * @throws IOException if the file could not be read
+	 */
+	public void aggregate(CSVReader aReader) throws IOException {
+		try (Stream<CSVRecord> l_stream = aReader.stream()) {
+			init(aReader.header(), aReader.getName());
+			// the budget is shared by the partial tables of the threads
+			limit = budget / (ForkJoinPool.getCommonPoolParallelism() + 1);
+			table = l_stream.parallel().collect(Table::new, Table::add, Table::combine);
+		} catch (UncheckedIOException anEx) {
+			throw anEx.getCause();
+		}
+	}
+
+	/**
+	 * Adds a record to the aggregates of its group.
+	 * 
+	 * @param aRecord the record to add
+	 * @throws UncheckedIOException if the groups could not be written to a
+	 *                              temporary file
+	 */
+	@Override
+	public void handle(CSVRecord aRecord) {
+		if (table == null) {
+			init(aRecord.header(), null);
+			limit = budget;
+		}
+		table.add(aRecord);
+	}
+
+	/**
+	 * Discards the groups collected so far.
+	 */
+	@Override
+	public void onError(Exception anEx) {
+		reset();
+	}
+
+	@Override
+	public void onExit() {
+		// the results are written by writeTo
+	}
+
+	@Override
+	public void onInit() {
+		reset();
+	}
+
+	/**
+	 * Assigns the memory budget for the groups held in memory.
+	 * 
+	 * @param aBytes the memory budget in bytes
+	 */
+	public void setBudget(long aBytes) {
+		if (aBytes <= 0) {
+			throw new IllegalArgumentException(String.valueOf(aBytes));
+		}
+		budget = aBytes;
+	}
+
+	/**
+	 * Assigns the directory for the temporary files.
+	 * 
+	 * @param aDir the directory or <code>null</code> for the default temporary
+	 *             directory
+	 */
+	public void setTempDirectory(File aDir) {
+		tempDir = aDir;
+	}
+
+	/**
+	 * Writes the aggregated results to a writer and resets this aggregator. A
+	 * result record holds the group columns followed by the aggregates.
+	 * 
+	 * @param anOutput the writer of the results
+	 * @throws IOException if an error occurred when writing
+	 */
+	public void writeTo(CSVWriter anOutput) throws IOException {
+		if (table == null) {
+			return;
+		}
+		List<String> l_columns = new ArrayList<>(groupBy);
+
+		for (int i = 0; i < functions.size(); i++) {
+			String l_column = columns.get(i) == null ? "*" : columns.get(i); //$NON-NLS-1$
+
+			l_columns.add(functions.get(i).name().toLowerCase() + "(" + l_column + ")"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		CSVHeader l_hdr = CSVRecord.Header(l_columns).Delimiter(delim);
+
+		try {
+			if (runs.isEmpty()) {
+				for (int l_group : table.sorted()) {
+					anOutput.write(result(l_hdr, table, l_group));
+				}
+			} else {
+				spill(table);
+				merge(l_hdr, anOutput);
+			}
+			if (anOutput.header() == null) {
+				anOutput.writeHeader(l_columns);
+			}
+		} finally {
+			reset();
+		}
+	}
+
+	/**
+	 * Compares two group keys value by value.
+	 */
+	private static int compare(String[] aKeys1, int anIndex1, String[] aKeys2, int anIndex2, int aWidth) {
+		for (int i = 0; i < aWidth; i++) {
+			int l_ret = aKeys1[anIndex1 + i].compareTo(aKeys2[anIndex2 + i]);
+
+			if (l_ret != 0) {
+				return l_ret;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Formats an aggregate value, integral values are written without fraction.
+	 */
+	private static String format(double aValue) {
+		if (aValue == Math.rint(aValue) && Math.abs(aValue) < 1e15) {
+			return Long.toString((long) aValue);
+		}
+		return Double.toString(aValue);
+	}
+
+	/**
+	 * Computes the hash of a group key.
+	 */
+	private static int hash(String[] aKeys, int anIndex, int aWidth) {
+		int l_ret = 1;
+
+		for (int i = 0; i < aWidth; i++) {
+			l_ret = 31 * l_ret + aKeys[anIndex + i].hashCode();
+		}
+		return l_ret ^ l_ret >>> 16;
+	}
+
+	/**
+	 * Resolves the group and value columns.
+	 * 
+	 * @param aHeader the header of the records
+	 * @param aName   the name of the CSV file or <code>null</code> if it is not
+	 *                known
+	 */
+	private void init(CSVHeader aHeader, String aName) {
+		hdr = aHeader;
+		delim = aHeader.delimiter();
+		width = groupBy.size();
+		groupIndex = resolve(groupBy, aName);
+		valueIndex = resolve(columns, aName);
+		table = new Table();
+	}
+
+	/**
+	 * Merges the spill files in the order of the group keys and writes the
+	 * results.
+	 */
+	private void merge(CSVHeader aHeader, CSVWriter anOutput) throws IOException {
+		PriorityQueue<Run> l_queue = new PriorityQueue<>(runs.size(),
+				(r1, r2) -> compare(r1.key, 0, r2.key, 0, width));
+		List<Run> l_open = new ArrayList<>();
+		int l_size = groupBy.size();
+
+		try {
+			for (File l_file : runs) {
+				Run l_run = new Run();
+				l_run.rdr = new CSVReader();
+				l_open.add(l_run);
+				l_run.rdr.open(l_file);
+
+				if (next(l_run)) {
+					l_queue.add(l_run);
+				}
+			}
+			Table l_group = new Table();
+
+			while (!l_queue.isEmpty()) {
+				String[] l_key = l_queue.peek().key;
+
+				l_group.clear();
+
+				while (!l_queue.isEmpty() && compare(l_queue.peek().key, 0, l_key, 0, width) == 0) {
+					Run l_run = l_queue.poll();
+					int l_base = l_group.slot(l_key, 0) * functions.size();
+
+					for (int i = 0; i < functions.size(); i++) {
+						double l_value = Double.parseDouble(l_run.rec.getValue(l_size + 2 * i));
+						long l_count = Long.parseLong(l_run.rec.getValue(l_size + 2 * i + 1));
+
+						l_group.update(l_base + i, i, l_value, l_count);
+					}
+					if (next(l_run)) {
+						l_queue.add(l_run);
+					}
+				}
+				anOutput.write(result(aHeader, l_group, 0));
+			}
+		} finally {
+			for (Run l_run : l_open) {
+				l_run.rdr.close();
+			}
+		}
+	}
+
+	/**
+	 * Reads the next group of a spill file.
+	 */
+	private boolean next(Run aRun) throws IOException {
+		aRun.rec = aRun.rdr.readRecord();
+
+		if (aRun.rec == null) {
+			return false;
+		}
+		String[] l_key = new String[groupBy.size()];
+
+		for (int i = 0; i < l_key.length; i++) {
+			l_key[i] = CSVField.toDisplayFormat(aRun.rec.getValue(i));
+		}
+		aRun.key = l_key;
+
+		return true;
+	}
+
+	/**
+	 * Discards all groups and spill files.
+	 */
+	private void reset() {
+		for (File l_run : runs) {
+			l_run.delete();
+		}
+		runs.clear();
+		table = null;
+	}
+
+	private int[] resolve(List<String> aColumns, String aName) {
+		int[] l_ret = new int[aColumns.size()];
+
+		for (int i = 0; i < l_ret.length; i++) {
+			String l_column = aColumns.get(i);
+			l_ret[i] = l_column == null ? -1 : hdr.indexOf(l_column);
+
+			if (l_column != null && l_ret[i] == -1) {
+				if (aName == null) {
+					throw SYS.LOG.exception(MSG.CSV_COLUMN_NOT_IN_HEADER, l_column);
+				}
+				throw SYS.LOG.exception(MSG.CSV_COLUMN_NOT_FOUND, l_column, aName);
+			}
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Creates the result record of a group.
+	 */
+	private CSVRecord result(CSVHeader aHeader, Table aTable, int aGroup) {
+		List<String> l_values = new ArrayList<>(aHeader.columns().size());
+		int l_base = aGroup * functions.size();
+
+		for (String l_value : aTable.key(aGroup)) {
+			l_values.add(CSVField.toCSVFormat(l_value));
+		}
+		for (int i = 0; i < functions.size(); i++) {
+			long l_count = aTable.counts[l_base + i];
+
+			if (functions.get(i) == Function.COUNT) {
+				l_values.add(Long.toString(l_count));
+			} else {
+				l_values.add(l_count == 0 ? "" : format(aTable.values[l_base + i])); //$NON-NLS-1$
+			}
+		}
+		return aHeader.Record(l_values);
+	}
+
+	/**
+	 * Writes the groups of a table sorted by their keys to a temporary file and
+	 * clears the table. A group is written as its key values followed by a value
+	 * and a count for each aggregate.
+	 */
+	private void spill(Table aTable) {
+		try {
+			File l_file = File.createTempFile(getClass().getSimpleName(), CAR._csv, tempDir);
+
+			synchronized (runs) {
+				runs.add(l_file);
+			}
+			try (CSVWriter l_out = new CSVWriter()) {
+				List<String> l_columns = new ArrayList<>(groupBy);
+
+				for (int i = 0; i < functions.size(); i++) {
+					l_columns.add("v" + i); //$NON-NLS-1$
+					l_columns.add("n" + i); //$NON-NLS-1$
+				}
+				l_out.open(l_file);
+				l_out.writeHeader(l_columns);
+
+				for (int l_group : aTable.sorted()) {
+					List<String> l_values = new ArrayList<>(aTable.key(l_group));
+					int l_base = l_group * functions.size();
+
+					for (int i = 0; i < functions.size(); i++) {
+						l_values.add(Double.toString(aTable.values[l_base + i]));
+						l_values.add(Long.toString(aTable.counts[l_base + i]));
+					}
+					l_out.writeValues(l_values);
+				}
+			}
+		} catch (IOException anEx) {
+			throw new UncheckedIOException(anEx);
+		}
+		aTable.clear();
+	}
+}
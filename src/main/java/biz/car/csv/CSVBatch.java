@@ -0,0 +1,196 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A batch of up to <i>capacity</i> CSV records in columnar form.<br>
+ * The declared columns are filled directly from the field boundaries found by
+ * the parser, no <code>CSVRecord</code> is created. A batch instance is
+ * reused for all batches of a reader, see {@link CSVReader#readBatch(CSVBatch)}.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+public class CSVBatch {
+
+	private int capacity;
+	private CSVHeader hdr;
+	private int size;
+	private int[] slots;
+	private List<CSVVector> vectors;
+	private RawField view;
+
+	/**
+	 * Creates a default <code>CSVBatch</code> instance.
+	 * 
+	 * @param aCapacity the maximum number of records of a batch
+	 */
+	public CSVBatch(int aCapacity) {
+		super();
+
+		if (aCapacity <= 0) {
+			throw new IllegalArgumentException(String.valueOf(aCapacity));
+		}
+		capacity = aCapacity;
+		vectors = new ArrayList<>();
+		view = new RawField();
+	}
+
+	/**
+	 * Declares a column of this batch.
+	 * 
+	 * @param aName the name of the column in the CSV header
+	 * @param aType the type of the column vector
+	 * @return this batch
+	 * @throws IllegalStateException if the batch has already been filled
+	 */
+	public CSVBatch addColumn(String aName, CSVVector.Type aType) {
+		if (hdr != null) {
+			throw new IllegalStateException();
+		}
+		vectors.add(new CSVVector(aName.trim(), Objects.requireNonNull(aType), capacity));
+
+		return this;
+	}
+
+	/**
+	 * @return the maximum number of records of a batch
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * @param anIndex the index of the declared column
+	 * @return the column vector
+	 */
+	public CSVVector get(int anIndex) {
+		return vectors.get(anIndex);
+	}
+
+	/**
+	 * @param aName the name of the declared column
+	 * @return the column vector
+	 * @throws IllegalArgumentException if the column has not been declared
+	 */
+	public CSVVector get(String aName) {
+		for (CSVVector l_vector : vectors) {
+			if (l_vector.name().equals(aName)) {
+				return l_vector;
+			}
+		}
+		throw new IllegalArgumentException(aName);
+	}
+
+	/**
+	 * @return the number of records of the current batch
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the declared column vectors
+	 */
+	public List<CSVVector> vectors() {
+		return List.copyOf(vectors);
+	}
+
+	/**
+	 * Adds a record given by UTF-8 encoded bytes.
+	 * 
+	 * @param aBuffer the buffer holding the record
+	 * @param aStarts the start offsets of the fields
+	 * @param anEnds  the end offsets (exclusive) of the fields
+	 * @param aCount  the number of valid offsets
+	 */
+	void add(ByteBuffer aBuffer, int[] aStarts, int[] anEnds, int aCount) {
+		for (int i = 0; i < slots.length; i++) {
+			int l_slot = slots[i];
+
+			if (l_slot < aCount) {
+				view.set(aBuffer, aStarts[l_slot], anEnds[l_slot]);
+			} else {
+				view.set(aBuffer, 0, 0);
+			}
+			vectors.get(i).set(size, view);
+		}
+		size++;
+	}
+
+	/**
+	 * Adds a record given by characters.
+	 * 
+	 * @param aBuffer the buffer holding the record
+	 * @param aStarts the start offsets of the fields
+	 * @param anEnds  the end offsets (exclusive) of the fields
+	 * @param aCount  the number of valid offsets
+	 */
+	void add(char[] aBuffer, int[] aStarts, int[] anEnds, int aCount) {
+		for (int i = 0; i < slots.length; i++) {
+			int l_slot = slots[i];
+
+			if (l_slot < aCount) {
+				view.set(aBuffer, aStarts[l_slot], anEnds[l_slot]);
+			} else {
+				view.set(aBuffer, 0, 0);
+			}
+			vectors.get(i).set(size, view);
+		}
+		size++;
+	}
+
+	/**
+	 * Binds the declared columns to the fields of a header.
+	 * 
+	 * @param aHeader the header of the reader
+	 * @param aSlots  the field index for each declared column
+	 */
+	void bind(CSVHeader aHeader, int[] aSlots) {
+		hdr = aHeader;
+		slots = aSlots;
+	}
+
+	/**
+	 * Starts a new batch.
+	 */
+	void clear() {
+		size = 0;
+
+		for (CSVVector l_vector : vectors) {
+			l_vector.clear();
+		}
+	}
+
+	/**
+	 * @return the declared column names
+	 */
+	List<String> columns() {
+		return vectors.stream()
+				.map(v -> v.name())
+				.toList();
+	}
+
+	/**
+	 * @param aHeader the header of the reader
+	 * @return <code>true</code> if the columns are bound to the given header
+	 */
+	boolean isBound(CSVHeader aHeader) {
+		return hdr == aHeader;
+	}
+
+	/**
+	 * @return <code>true</code> if the batch holds <i>capacity</i> records
+	 */
+	boolean isFull() {
+		return size == capacity;
+	}
+}
@@ -0,0 +1,26 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+/**
+ * Processor of a <code>CSVBatch</code>.<br>
+ * A CSVFeeder created with a batch handler passes the input records in
+ * columnar batches instead of single records.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+public interface CSVBatchHandler extends CSVConsumer {
+
+	/**
+	 * Processes a batch of CSV records.<br>
+	 * The batch is reused for the next batch, so the column vectors must not be
+	 * kept.
+	 * 
+	 * @param aBatch the batch to process
+	 */
+	void handle(CSVBatch aBatch);
+}
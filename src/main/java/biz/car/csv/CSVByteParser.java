@@ -0,0 +1,283 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Breaks UTF-8 encoded CSV content into records and fields.
+ * <p>
+ * Delimiters, quotes and line breaks are searched directly in the bytes. This
+ * is safe for UTF-8 since the bytes of a multi-byte character never match an
+ * ASCII character. The parser only computes the field boundaries, field values
+ * are decoded when they are read.
+ * <p>
+ * With a projection only the boundaries of the selected fields are kept, see
+ * {@link CSVParser#project(int[])}.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+public class CSVByteParser {
+
+	private static final byte CR = '\r';
+	private static final byte DQ = '"';
+	private static final byte LF = '\n';
+
+	// the states of the quote state machine
+	private static final int FIELD_START = 0;
+	private static final int UNQUOTED = 1;
+	private static final int QUOTED = 2;
+	private static final int QUOTE_SEEN = 3;
+
+	private int count;
+	private byte[] delim;
+	private int[] ends;
+	private int[] slots;
+	private int[] starts;
+	private int width;
+
+	/**
+	 * Creates a default <code>CSVByteParser</code> instance.
+	 * 
+	 * @param aDelim the CSV field delimiter
+	 */
+	public CSVByteParser(String aDelim) {
+		super();
+
+		String l_delim = aDelim == null || aDelim.isEmpty() ? CSV.DELIMITER : aDelim;
+		delim = l_delim.getBytes(StandardCharsets.UTF_8);
+		starts = new int[16];
+		ends = new int[16];
+	}
+
+	/**
+	 * @return the end index (exclusive) of the given field of the last parsed
+	 *         record. With a projection the index is the index within the
+	 *         projection.
+	 */
+	public int end(int anIndex) {
+		return ends[anIndex];
+	}
+
+	/**
+	 * Creates the field list of the last parsed record.<br>
+	 * The values are decoded from the given buffer when they are read.
+	 * 
+	 * @param aBuffer the buffer holding the parsed record
+	 * @return the list of field values
+	 */
+	public List<String> fields(ByteBuffer aBuffer) {
+		int[] l_starts = Arrays.copyOf(starts, width());
+		int[] l_ends = Arrays.copyOf(ends, width());
+
+		return new ByteFields(aBuffer, l_starts, l_ends);
+	}
+
+	/**
+	 * Parses the next record of the given buffer.
+	 * 
+	 * @param aBuffer the buffer holding the CSV content
+	 * @param aFrom   the index of the first byte of the record
+	 * @param aLimit  the index after the last available byte
+	 * @param isLast  <code>true</code> if there is no more content after
+	 *                <code>aLimit</code>
+	 * @return the index after the record, or <code>-1</code> if the record is not
+	 *         complete within the available bytes
+	 */
+	public int parse(ByteBuffer aBuffer, int aFrom, int aLimit, boolean isLast) {
+		int l_mode = FIELD_START;
+		int l_start = aFrom;
+		int i = aFrom;
+
+		count = 0;
+
+		if (slots != null) {
+			// fields missing in this record are null strings
+			Arrays.fill(starts, 0);
+			Arrays.fill(ends, 0);
+		}
+
+		while (i < aLimit) {
+			byte l_byte = aBuffer.get(i);
+
+			switch (l_mode) {
+			case QUOTED:
+				if (l_byte == DQ) {
+					l_mode = QUOTE_SEEN;
+				}
+				i++;
+				break;
+
+			case QUOTE_SEEN:
+				if (l_byte == DQ) {
+					// a doubled quote inside a quoted field
+					l_mode = QUOTED;
+					i++;
+					break;
+				}
+				l_mode = UNQUOTED;
+				// the quoted part has ended, the character is scanned again as
+				// unquoted content
+				break;
+
+			default:
+				if (l_byte == LF) {
+					endField(l_start, lineEnd(aBuffer, l_start, i));
+
+					return i + 1;
+				}
+				if (isDelimiter(aBuffer, i, aLimit)) {
+					endField(l_start, i);
+					i += delim.length;
+					l_start = i;
+					l_mode = FIELD_START;
+				} else {
+					l_mode = l_byte == DQ && l_mode == FIELD_START ? QUOTED : UNQUOTED;
+					i++;
+				}
+			}
+		}
+		if (isLast) {
+			endField(l_start, lineEnd(aBuffer, l_start, aLimit));
+
+			return aLimit;
+		}
+		return -1;
+	}
+
+	/**
+	 * Restricts the parsed field values to a projection, see
+	 * {@link CSVParser#project(int[])}.
+	 * 
+	 * @param aSlots the target index for each field or <code>null</code> to keep
+	 *               all fields
+	 */
+	public void project(int[] aSlots) {
+		slots = aSlots;
+		width = 0;
+
+		if (aSlots != null) {
+			for (int l_slot : aSlots) {
+				width = Math.max(width, l_slot + 1);
+			}
+			starts = new int[Math.max(width, 1)];
+			ends = new int[Math.max(width, 1)];
+		}
+	}
+
+	/**
+	 * @return the number of fields of the last parsed record
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * @return the start index of the given field of the last parsed record. With
+	 *         a projection the index is the index within the projection.
+	 */
+	public int start(int anIndex) {
+		return starts[anIndex];
+	}
+
+	/**
+	 * Adds the fields of the last parsed record to a batch.
+	 * 
+	 * @param aBatch  the batch to fill
+	 * @param aBuffer the buffer holding the parsed record
+	 */
+	void addTo(CSVBatch aBatch, ByteBuffer aBuffer) {
+		aBatch.add(aBuffer, starts, ends, width());
+	}
+
+	/**
+	 * Creates the field list of the last parsed record with a fixed size.<br>
+	 * Missing fields are set to the null string, additional fields are ignored.
+	 * 
+	 * @param aBuffer the buffer holding the parsed record
+	 * @param aSize   the number of fields of the list
+	 * @return the list of field values
+	 */
+	List<String> fields(ByteBuffer aBuffer, int aSize) {
+		ByteFields l_ret = new ByteFields(aSize);
+		l_ret.refill(aBuffer, starts, ends, width());
+
+		return l_ret;
+	}
+
+	/**
+	 * Assigns the fields of the last parsed record to a reusable list.
+	 * 
+	 * @param aTarget the reusable field list
+	 * @param aBuffer the buffer holding the parsed record
+	 */
+	void fill(ByteFields aTarget, ByteBuffer aBuffer) {
+		aTarget.refill(aBuffer, starts, ends, width());
+	}
+
+	/**
+	 * Tests a filter on the fields of the last parsed record.
+	 * 
+	 * @param aFilter the filter to test
+	 * @param aBuffer the buffer holding the parsed record
+	 * @return <code>true</code> if the filter is satisfied
+	 */
+	boolean test(CSVFilter aFilter, ByteBuffer aBuffer) {
+		return aFilter.test(aBuffer, starts, ends, width());
+	}
+
+	private void endField(int aStart, int anEnd) {
+		int l_slot = count;
+
+		if (slots != null) {
+			l_slot = count < slots.length ? slots[count] : -1;
+		} else if (count == starts.length) {
+			starts = Arrays.copyOf(starts, count * 2);
+			ends = Arrays.copyOf(ends, count * 2);
+		}
+		if (l_slot >= 0) {
+			starts[l_slot] = aStart;
+			ends[l_slot] = anEnd;
+		}
+		count++;
+	}
+
+	private boolean isDelimiter(ByteBuffer aBuffer, int anIndex, int aLimit) {
+		if (aBuffer.get(anIndex) != delim[0]) {
+			return false;
+		}
+		if (anIndex + delim.length > aLimit) {
+			return false;
+		}
+		for (int i = 1; i < delim.length; i++) {
+			if (aBuffer.get(anIndex + i) != delim[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the number of stored field boundaries
+	 */
+	private int width() {
+		return slots == null ? count : width;
+	}
+
+	/**
+	 * Excludes the carriage return of a CR-LF line break from the last field.
+	 */
+	private int lineEnd(ByteBuffer aBuffer, int aStart, int anEnd) {
+		if (anEnd > aStart && aBuffer.get(anEnd - 1) == CR) {
+			return anEnd - 1;
+		}
+		return anEnd;
+	}
+}
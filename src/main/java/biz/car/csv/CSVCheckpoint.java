@@ -0,0 +1,238 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import biz.car.CAR;
+import biz.car.SYS;
+import biz.car.bundle.MSG;
+
+/**
+ * The progress of a job which processes the records of a CSV file.<br>
+ * The checkpoint is kept in a sidecar file next to the CSV file. It holds the
+ * file offset after the last record which has been handled completely, the
+ * number of handled records and a fingerprint of the file header. The sidecar
+ * file is written to a temporary file which then replaces the previous one, so
+ * a checkpoint is never left incomplete.
+ * <p>
+ * A checkpoint is only taken up again for the same file with an unchanged
+ * header which has at least the size of the checkpoint offset. The bytes before
+ * the offset must end with a line break and must have the same hash as when
+ * the checkpoint was saved, so a file which has been written again with the
+ * same header is read from the start.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CSVCheckpoint {
+
+	/**
+	 * The default number of records between two checkpoints.
+	 */
+	static final int INTERVAL = 100000;
+
+	private static final int MAGIC = 0x43415243;
+	private static final int TAIL_SIZE = 4096;
+	private static final int VERSION = 2;
+
+	/**
+	 * Loads the checkpoint of a CSV file from its sidecar file. If there is no
+	 * valid sidecar file the checkpoint starts at the beginning of the file.
+	 * 
+	 * @param aFile      the CSV file
+	 * @param aHeader    the header of the CSV file
+	 * @param anInterval the number of records between two checkpoints
+	 * @return the checkpoint of the CSV file
+	 */
+	static CSVCheckpoint open(File aFile, CSVHeader aHeader, int anInterval) {
+		if (anInterval <= 0) {
+			throw new IllegalArgumentException(String.valueOf(anInterval));
+		}
+		CSVCheckpoint l_ret = new CSVCheckpoint(aFile, fingerprint(aHeader), anInterval);
+		File l_file = sidecar(aFile);
+
+		if (l_file.isFile()) {
+			try (DataInputStream l_in = new DataInputStream(new FileInputStream(l_file))) {
+				if (l_in.readInt() == MAGIC
+						&& l_in.readInt() == VERSION
+						&& l_in.readUTF().equals(aFile.getAbsolutePath())
+						&& l_in.readLong() == l_ret.fingerprint) {
+					long l_offset = l_in.readLong();
+					long l_count = l_in.readLong();
+					long l_tail = l_in.readLong();
+
+					if (l_offset <= aFile.length() && tail(aFile, l_offset) == l_tail) {
+						l_ret.offset = l_offset;
+						l_ret.count = l_count;
+						l_ret.saved = l_count;
+					}
+				}
+			} catch (IOException anEx) {
+				// an unreadable checkpoint is ignored
+			}
+		}
+		return l_ret;
+	}
+
+	/**
+	 * @param aFile the CSV file
+	 * @return the sidecar checkpoint file of the given CSV file
+	 */
+	static File sidecar(File aFile) {
+		return new File(aFile.getPath() + CAR._chk);
+	}
+
+	/**
+	 * Computes a 64 bit hash of the delimiter and the column names of a header.
+	 */
+	private static long fingerprint(CSVHeader aHeader) {
+		long l_ret = 0xcbf29ce484222325L;
+		String l_text = aHeader.delimiter() + '\0' + String.join("\0", aHeader.columns()); //$NON-NLS-1$
+
+		for (int i = 0; i < l_text.length(); i++) {
+			l_ret ^= l_text.charAt(i);
+			l_ret *= 0x100000001b3L;
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Computes a 64 bit hash of the last bytes before an offset of a file.
+	 * 
+	 * @param aFile    the CSV file
+	 * @param anOffset the file offset after the last handled record
+	 * @return the hash or <code>0</code> if the bytes do not end with a line
+	 *         break
+	 * @throws IOException if the file could not be read
+	 */
+	private static long tail(File aFile, long anOffset) throws IOException {
+		byte[] l_bytes = new byte[(int) Math.min(TAIL_SIZE, anOffset)];
+		long l_ret = 0xcbf29ce484222325L;
+
+		try (RandomAccessFile l_file = new RandomAccessFile(aFile, "r")) { //$NON-NLS-1$
+			l_file.seek(anOffset - l_bytes.length);
+			l_file.readFully(l_bytes);
+		}
+		if (l_bytes.length == 0 || l_bytes[l_bytes.length - 1] != '\n') {
+			return 0;
+		}
+		for (byte l_byte : l_bytes) {
+			l_ret ^= l_byte & 0xff;
+			l_ret *= 0x100000001b3L;
+		}
+		return l_ret;
+	}
+
+	private long count;
+	private File file;
+	private long fingerprint;
+	private int interval;
+	private long offset = -1;
+	private long saved;
+
+	/**
+	 * Creates a default <code>CSVCheckpoint</code> instance.
+	 * 
+	 * @param aFile        the CSV file
+	 * @param aFingerprint the fingerprint of the header
+	 * @param anInterval   the number of records between two checkpoints
+	 */
+	private CSVCheckpoint(File aFile, long aFingerprint, int anInterval) {
+		super();
+
+		file = aFile;
+		fingerprint = aFingerprint;
+		interval = anInterval;
+	}
+
+	/**
+	 * @return the number of records handled so far
+	 */
+	long count() {
+		return count;
+	}
+
+	/**
+	 * Deletes the sidecar file when the whole file has been handled.
+	 */
+	void delete() {
+		try {
+			Files.deleteIfExists(sidecar(file).toPath());
+		} catch (IOException anEx) {
+			SYS.LOG.warn(MSG.CSV_CHECKPOINT_FAILED, file.getPath(), anEx.getMessage());
+		}
+	}
+
+	/**
+	 * @return the file offset after the last handled record or <code>-1</code>
+	 *         if no record has been handled
+	 */
+	long offset() {
+		return offset;
+	}
+
+	/**
+	 * Writes the current progress to the sidecar file. A failure is logged as a
+	 * warning, the job goes on.
+	 */
+	void save() {
+		if (offset < 0 || saved == count) {
+			return;
+		}
+		File l_file = sidecar(file);
+		File l_dir = l_file.getAbsoluteFile().getParentFile();
+		File l_temp = null;
+
+		try {
+			long l_tail = tail(file, offset);
+
+			l_temp = Files.createTempFile(l_dir.toPath(), l_file.getName(), ".tmp").toFile(); //$NON-NLS-1$
+
+			try (DataOutputStream l_out = new DataOutputStream(new FileOutputStream(l_temp))) {
+				l_out.writeInt(MAGIC);
+				l_out.writeInt(VERSION);
+				l_out.writeUTF(file.getAbsolutePath());
+				l_out.writeLong(fingerprint);
+				l_out.writeLong(offset);
+				l_out.writeLong(count);
+				l_out.writeLong(l_tail);
+			}
+			Files.move(l_temp.toPath(), l_file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			saved = count;
+		} catch (IOException anEx) {
+			if (l_temp != null) {
+				l_temp.delete();
+			}
+			SYS.LOG.warn(MSG.CSV_CHECKPOINT_FAILED, file.getPath(), anEx.getMessage());
+		}
+	}
+
+	/**
+	 * Records the progress after some records have been handled. The sidecar
+	 * file is written if the interval has passed since the last checkpoint.
+	 * 
+	 * @param anOffset the file offset after the last handled record
+	 * @param aCount   the number of records handled since the last update
+	 */
+	void update(long anOffset, long aCount) {
+		offset = anOffset;
+		count += aCount;
+
+		if (count - saved >= interval) {
+			save();
+		}
+	}
+}
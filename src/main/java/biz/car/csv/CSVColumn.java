@@ -0,0 +1,107 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Accessor for a single column of a CSV header.<br>
+ * The column index is resolved when the accessor is created. For records with
+ * the same header the field value is then accessed by index. For records with
+ * a different header the column is looked up by name.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+public class CSVColumn {
+
+	private CSVHeader hdr;
+	private int index;
+	private String name;
+
+	/**
+	 * Creates a default <code>CSVColumn</code> instance.
+	 * 
+	 * @param aHeader the header defining the column
+	 * @param aName   the name of the column
+	 * @param anIndex the index of the column or <code>-1</code> if the column is
+	 *                not defined
+	 */
+	CSVColumn(CSVHeader aHeader, String aName, int anIndex) {
+		super();
+
+		hdr = aHeader;
+		name = Objects.requireNonNull(aName);
+		index = anIndex;
+	}
+
+	/**
+	 * Looks up the value of this column in the given record.
+	 * 
+	 * @param aRecord the CSV record
+	 * @return the value found
+	 * @throws IndexOutOfBoundsException if the column is not defined
+	 */
+	public String getValue(CSVRecord aRecord) {
+		return aRecord.getValue(indexIn(aRecord));
+	}
+
+	/**
+	 * @return the index of this column or <code>-1</code> if the column is not
+	 *         defined in the header
+	 */
+	public int index() {
+		return index;
+	}
+
+	/**
+	 * @return the name of this column
+	 */
+	public String name() {
+		return name;
+	}
+
+	/**
+	 * Looks up the value of this column in the given record.
+	 * 
+	 * @param aRecord the CSV record
+	 * @return the optional value
+	 */
+	public Optional<String> optionalValue(CSVRecord aRecord) {
+		String l_ret = null;
+		int l_ind = indexIn(aRecord);
+
+		if (l_ind != -1) {
+			l_ret = aRecord.getValue(l_ind);
+		}
+		return Optional.ofNullable(l_ret);
+	}
+
+	/**
+	 * Sets the value of this column in the given record.
+	 * 
+	 * @param aRecord the CSV record
+	 * @param aValue  the value to set
+	 * @return the given CSV record
+	 * @throws IndexOutOfBoundsException if the column is not defined
+	 */
+	public CSVRecord setValue(CSVRecord aRecord, String aValue) {
+		return aRecord.setValue(indexIn(aRecord), aValue);
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	private int indexIn(CSVRecord aRecord) {
+		if (aRecord.header() == hdr) {
+			return index;
+		}
+		return aRecord.header().indexOf(name);
+	}
+}
@@ -0,0 +1,36 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+/**
+ * The life cycle of a consumer of CSV input.<br>
+ * The CSVFeeder calls these methods around the processing of the input
+ * records, which are passed either to a {@link CSVHandler} or to a
+ * {@link CSVBatchHandler}.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+public interface CSVConsumer {
+
+	/**
+	 * Called when an exception occurred during the input process.
+	 * 
+	 * @param anEx the exception thrown by the <code>CSVFeeder</code>.
+	 */
+	void onError(Exception anEx);
+
+	/**
+	 * Called once after the CSVFeeder has finished the processing the input
+	 * records.
+	 */
+	void onExit();
+
+	/**
+	 * Called once before the CSVFeeder starts processing the input records.
+	 */
+	void onInit();
+}
@@ -0,0 +1,420 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import biz.car.CAR;
+import biz.car.SYS;
+import biz.car.bundle.MSG;
+
+/**
+ * Passes only the first record of each key to a handler.
+ * <p>
+ * A key is the list of raw values of the key columns, or of all columns if no
+ * key column is given. The keys seen so far are kept as 128 bit fingerprints
+ * in an open addressing table of <code>long</code> values. Large tables are
+ * allocated outside of the heap. Two different keys with equal fingerprints
+ * are very unlikely, so records are dropped by their fingerprint alone.
+ * <p>
+ * In exact mode the keys are also written to a temporary file. A record whose
+ * fingerprint has been seen before is only dropped if its key is equal to the
+ * key read back from that file.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+public class CSVDeduplicator implements CSVHandler {
+
+	// tables larger than this are allocated outside of the heap
+	private static final long OFF_HEAP = 1L << 26;
+	private static final int SEGMENT_SHIFT = 27;
+
+	private boolean bExact;
+	private long capacity;
+	private String[] columns;
+	private long duplicates;
+	private int[] index;
+	private FileChannel keys;
+	private long keysSize;
+	private LongBuffer[] segments;
+	private long size;
+	private CSVHandler target;
+	private File tempDir;
+	private File tempFile;
+	private int width;
+
+	/**
+	 * Creates a default <code>CSVDeduplicator</code> instance.
+	 * 
+	 * @param aTarget  the handler of the first record of each key, may be
+	 *                 <code>null</code> if the records are tested by
+	 *                 {@link #isNew(CSVRecord)}
+	 * @param aColumns the names of the key columns, none for all columns
+	 */
+	public CSVDeduplicator(CSVHandler aTarget, String... aColumns) {
+		super();
+
+		target = aTarget;
+		columns = Arrays.stream(aColumns)
+				.map(f -> f.trim())
+				.toArray(String[]::new);
+	}
+
+	/**
+	 * Copies the records of a reader with a new key to a writer.
+	 * 
+	 * @param anInput  the reader of the records
+	 * @param anOutput the writer of the first record of each key
+	 * @throws IOException if an error occurred when reading or writing
+	 */
+	public void dedup(CSVReader anInput, CSVWriter anOutput) throws IOException {
+		try {
+			CSVRecord l_rec = anInput.readRecord();
+
+			while (l_rec != null) {
+				if (isNew(l_rec)) {
+					anOutput.write(l_rec);
+				}
+				l_rec = anInput.readRecord();
+			}
+			if (anOutput.header() == null) {
+				anOutput.writeHeader(anInput.header().columns());
+			}
+		} catch (UncheckedIOException anEx) {
+			throw anEx.getCause();
+		} finally {
+			release();
+		}
+	}
+
+	/**
+	 * @return the number of records which have been dropped
+	 */
+	public long getDuplicateCount() {
+		return duplicates;
+	}
+
+	/**
+	 * Passes the record to the target handler if its key is new.
+	 */
+	@Override
+	public void handle(CSVRecord aRecord) {
+		if (isNew(aRecord)) {
+			target.handle(aRecord);
+		}
+	}
+
+	/**
+	 * Tests if the key of a record has not been seen before. The key is
+	 * remembered.
+	 * 
+	 * @param aRecord the record to test
+	 * @return <code>true</code> for the first record of a key
+	 * @throws UncheckedIOException if a key could not be written to or read
+	 *                              from the temporary file in exact mode
+	 */
+	public boolean isNew(CSVRecord aRecord) {
+		if (segments == null) {
+			init(aRecord);
+		}
+		String l_key = key(aRecord);
+		long l_hi = hash(l_key, 0x9E3779B97F4A7C15L);
+		long l_lo = hash(l_key, 0xC2B2AE3D27D4EB4FL);
+
+		if (l_hi == 0 && l_lo == 0) {
+			l_lo = 1;
+		}
+		long l_mask = capacity - 1;
+
+		for (long l_slot = l_hi & l_mask;; l_slot = (l_slot + 1) & l_mask) {
+			long l_pos = l_slot * width;
+			long l_h = get(segments, l_pos);
+			long l_l = get(segments, l_pos + 1);
+
+			if (l_h == 0 && l_l == 0) {
+				put(l_pos, l_hi, l_lo, l_key);
+
+				if (++size * 2 > capacity) {
+					grow();
+				}
+				return true;
+			}
+			if (l_h == l_hi && l_l == l_lo && (!bExact || readKey(get(segments, l_pos + 2)).equals(l_key))) {
+				duplicates++;
+
+				return false;
+			}
+		}
+	}
+
+	@Override
+	public void onError(Exception anEx) {
+		release();
+
+		if (target != null) {
+			target.onError(anEx);
+		}
+	}
+
+	@Override
+	public void onExit() {
+		release();
+
+		if (target != null) {
+			target.onExit();
+		}
+	}
+
+	@Override
+	public void onInit() {
+		release();
+		duplicates = 0;
+
+		if (target != null) {
+			target.onInit();
+		}
+	}
+
+	/**
+	 * Switches the exact mode on or off.
+	 * 
+	 * @param isExact <code>true</code> to verify the keys of suspected
+	 *                duplicates
+	 */
+	public void setExact(boolean isExact) {
+		bExact = isExact;
+	}
+
+	/**
+	 * Assigns the directory for the temporary file of the exact mode.
+	 * 
+	 * @param aDir the directory or <code>null</code> for the default temporary
+	 *             directory
+	 */
+	public void setTempDirectory(File aDir) {
+		tempDir = aDir;
+	}
+
+	/**
+	 * Reads a value of a table. A slot may cross a segment boundary.
+	 */
+	private static long get(LongBuffer[] aTable, long aPos) {
+		return aTable[(int) (aPos >>> SEGMENT_SHIFT)].get((int) (aPos & ((1L << SEGMENT_SHIFT) - 1)));
+	}
+
+	/**
+	 * Computes a 64 bit hash of a key with a seed.
+	 */
+	private static long hash(String aKey, long aSeed) {
+		long l_ret = aSeed;
+		int l_len = aKey.length();
+
+		for (int i = 0; i < l_len; i++) {
+			l_ret = (l_ret ^ aKey.charAt(i)) * 0x100000001B3L;
+			l_ret = Long.rotateLeft(l_ret, 31) * aSeed;
+		}
+		l_ret ^= l_len;
+		l_ret ^= l_ret >>> 33;
+		l_ret *= 0xFF51AFD7ED558CCDL;
+		l_ret ^= l_ret >>> 33;
+		l_ret *= 0xC4CEB9FE1A85EC53L;
+		l_ret ^= l_ret >>> 33;
+
+		return l_ret;
+	}
+
+	/**
+	 * Creates a table of the given capacity.
+	 */
+	private LongBuffer[] allocate(long aCapacity) {
+		long l_longs = aCapacity * width;
+		boolean l_offHeap = l_longs * Long.BYTES > OFF_HEAP;
+		long l_segSize = 1L << SEGMENT_SHIFT;
+		int l_count = (int) ((l_longs + l_segSize - 1) >>> SEGMENT_SHIFT);
+		LongBuffer[] l_ret = new LongBuffer[l_count];
+
+		for (int i = 0; i < l_count; i++) {
+			int l_bytes = (int) (Math.min(l_segSize, l_longs - i * l_segSize) * Long.BYTES);
+
+			l_ret[i] = (l_offHeap ? ByteBuffer.allocateDirect(l_bytes) : ByteBuffer.allocate(l_bytes))
+					.asLongBuffer();
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Doubles the capacity of the table.
+	 */
+	private void grow() {
+		LongBuffer[] l_old = segments;
+		long l_oldCapacity = capacity;
+
+		capacity *= 2;
+		segments = allocate(capacity);
+
+		long l_mask = capacity - 1;
+
+		for (long l_slot = 0; l_slot < l_oldCapacity; l_slot++) {
+			long l_pos = l_slot * width;
+			long l_hi = get(l_old, l_pos);
+
+			if (l_hi != 0 || get(l_old, l_pos + 1) != 0) {
+				long l_new = l_hi & l_mask;
+
+				while (get(segments, l_new * width) != 0 || get(segments, l_new * width + 1) != 0) {
+					l_new = (l_new + 1) & l_mask;
+				}
+				for (int i = 0; i < width; i++) {
+					set(l_new * width + i, get(l_old, l_pos + i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Resolves the key columns and creates the table.
+	 */
+	private void init(CSVRecord aRecord) {
+		CSVHeader l_hdr = aRecord.header();
+
+		if (columns.length == 0) {
+			index = new int[l_hdr.columns().size()];
+			Arrays.setAll(index, i -> i);
+		} else {
+			index = new int[columns.length];
+
+			for (int i = 0; i < index.length; i++) {
+				index[i] = l_hdr.indexOf(columns[i]);
+
+				if (index[i] == -1) {
+					throw SYS.LOG.exception(MSG.CSV_COLUMN_NOT_IN_HEADER, columns[i]);
+				}
+			}
+		}
+		width = bExact ? 3 : 2;
+		capacity = 1 << 10;
+		size = 0;
+		segments = allocate(capacity);
+
+		if (bExact) {
+			try {
+				tempFile = File.createTempFile(getClass().getSimpleName(), CAR._csv, tempDir);
+				keys = FileChannel.open(tempFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+				keysSize = 0;
+			} catch (IOException anEx) {
+				throw new UncheckedIOException(anEx);
+			}
+		}
+	}
+
+	/**
+	 * @return the raw key values separated by a null character
+	 */
+	private String key(CSVRecord aRecord) {
+		if (index.length == 1) {
+			return aRecord.getValue(index[0]);
+		}
+		StringBuilder l_ret = new StringBuilder();
+
+		for (int i = 0; i < index.length; i++) {
+			if (i > 0) {
+				l_ret.append('\0');
+			}
+			l_ret.append(aRecord.getValue(index[i]));
+		}
+		return l_ret.toString();
+	}
+
+	/**
+	 * Stores a fingerprint in an empty slot. In exact mode the key is appended
+	 * to the temporary file.
+	 */
+	private void put(long aPos, long aHigh, long aLow, String aKey) {
+		set(aPos, aHigh);
+		set(aPos + 1, aLow);
+
+		if (bExact) {
+			byte[] l_bytes = aKey.getBytes(StandardCharsets.UTF_8);
+			ByteBuffer l_buf = ByteBuffer.allocate(Integer.BYTES + l_bytes.length);
+
+			l_buf.putInt(l_bytes.length).put(l_bytes).flip();
+			set(aPos + 2, keysSize);
+
+			try {
+				while (l_buf.hasRemaining()) {
+					keysSize += keys.write(l_buf, keysSize);
+				}
+			} catch (IOException anEx) {
+				throw new UncheckedIOException(anEx);
+			}
+		}
+	}
+
+	/**
+	 * Fills a buffer from the temporary file.
+	 * 
+	 * @throws EOFException if the file ends before the buffer is full
+	 */
+	private void read(ByteBuffer aBuffer, long anOffset) throws IOException {
+		while (aBuffer.hasRemaining()) {
+			if (keys.read(aBuffer, anOffset + aBuffer.position()) < 0) {
+				throw new EOFException(tempFile.getPath());
+			}
+		}
+	}
+
+	/**
+	 * Reads a key from the temporary file.
+	 */
+	private String readKey(long anOffset) {
+		try {
+			ByteBuffer l_len = ByteBuffer.allocate(Integer.BYTES);
+
+			read(l_len, anOffset);
+			ByteBuffer l_buf = ByteBuffer.allocate(l_len.flip().getInt());
+
+			read(l_buf, anOffset + Integer.BYTES);
+
+			return new String(l_buf.array(), StandardCharsets.UTF_8);
+		} catch (IOException anEx) {
+			throw new UncheckedIOException(anEx);
+		}
+	}
+
+	/**
+	 * Drops the table and the temporary file.
+	 */
+	private void release() {
+		segments = null;
+
+		if (keys != null) {
+			try {
+				keys.close();
+			} catch (IOException anEx) {
+				// the file is deleted anyway
+			}
+			keys = null;
+			tempFile.delete();
+		}
+	}
+
+	/**
+	 * Writes a value of the table.
+	 */
+	private void set(long aPos, long aValue) {
+		segments[(int) (aPos >>> SEGMENT_SHIFT)].put((int) (aPos & ((1L << SEGMENT_SHIFT) - 1)), aValue);
+	}
+}
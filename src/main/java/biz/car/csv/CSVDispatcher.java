@@ -0,0 +1,281 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import biz.car.SYS;
+
+/**
+ * Passes records to a handler on a pool of worker threads.<br>
+ * The records are collected in blocks which are put into bounded queues. A
+ * reader which adds records faster than the workers handle them waits until a
+ * queue has room again. Except in ordered delivery the handler is called by
+ * several threads at once and must be thread safe.
+ * <p>
+ * The delivery modes are:
+ * <ul>
+ * <li><code>ORDERED</code> a single worker takes the blocks from the queue, so
+ * the records are handled one at a time in the order in which they have been
+ * added. The reader still runs in parallel to the handler.
+ * <li><code>PARTITIONED</code> each worker has its own queue. Records with equal
+ * values in the key columns are always handled by the same worker, in the
+ * order in which they have been added. No progress is committed.
+ * <li><code>UNORDERED</code> all workers take blocks from a common queue.
+ * </ul>
+ * Except in partitioned delivery the progress of a checkpoint is committed in
+ * the order of the blocks, so a checkpoint never covers a block which has not
+ * been handled completely.
+ * The first error of a worker stops the handling of further blocks and is
+ * reported to the reader by the next add or close operation.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CSVDispatcher {
+
+	/**
+	 * The delivery modes of a dispatcher.
+	 */
+	enum Delivery {
+		ORDERED, PARTITIONED, UNORDERED
+	}
+
+	/**
+	 * The number of records of a block.
+	 */
+	static final int BLOCK_SIZE = 256;
+
+	/**
+	 * A block of records.
+	 */
+	private static class Block {
+		long end;
+		List<CSVRecord> records = new ArrayList<>(BLOCK_SIZE);
+		long seq;
+	}
+
+	private static final Block END = new Block();
+
+	private Block[] blocks;
+	private CSVCheckpoint checkpoint;
+	private long committed;
+	private Map<Long, Block> done = new HashMap<>();
+	private Throwable error;
+	private ExecutorService executor;
+	private List<Future<?>> futures = new ArrayList<>();
+	private int[] keys;
+	private long next;
+	private List<BlockingQueue<Block>> queues = new ArrayList<>();
+	private CSVHandler target;
+	private int workers;
+
+	/**
+	 * Creates a default <code>CSVDispatcher</code> instance and starts the
+	 * workers.
+	 * 
+	 * @param aTarget     the handler of the records
+	 * @param aWorkers    the number of worker threads, ordered delivery uses a
+	 *                    single worker
+	 * @param aQueueSize  the number of blocks which may wait in a queue
+	 * @param aDelivery   the delivery mode
+	 * @param aKeys       the indexes of the key columns in partitioned mode
+	 * @param aCheckpoint the checkpoint to commit the progress to, may be
+	 *                    <code>null</code>. It is not used in partitioned mode.
+	 */
+	CSVDispatcher(CSVHandler aTarget, int aWorkers, int aQueueSize, Delivery aDelivery, int[] aKeys,
+			CSVCheckpoint aCheckpoint) {
+		super();
+
+		if (aWorkers <= 0) {
+			throw new IllegalArgumentException(String.valueOf(aWorkers));
+		}
+		if (aQueueSize <= 0) {
+			throw new IllegalArgumentException(String.valueOf(aQueueSize));
+		}
+		target = aTarget;
+		workers = aDelivery == Delivery.ORDERED ? 1 : aWorkers;
+		keys = aDelivery == Delivery.PARTITIONED ? aKeys : null;
+		checkpoint = aDelivery == Delivery.PARTITIONED ? null : aCheckpoint;
+		blocks = new Block[keys == null ? 1 : workers];
+		executor = Executors.newFixedThreadPool(workers);
+
+		for (int i = 0; i < blocks.length; i++) {
+			queues.add(new ArrayBlockingQueue<>(aQueueSize));
+			blocks[i] = new Block();
+		}
+		for (int i = 0; i < workers; i++) {
+			BlockingQueue<Block> l_queue = queues.get(i % queues.size());
+
+			futures.add(executor.submit(() -> work(l_queue)));
+		}
+	}
+
+	/**
+	 * Adds a record. The block of the record is passed to the workers when it is
+	 * full. An error of a worker is reported when a block is passed.
+	 * 
+	 * @param aRecord  the record to add
+	 * @param anOffset the file offset after the record
+	 * @throws IOException if the thread has been interrupted while waiting
+	 */
+	void add(CSVRecord aRecord, long anOffset) throws IOException {
+		int l_index = keys == null ? 0 : Math.floorMod(hash(aRecord), queues.size());
+		Block l_block = blocks[l_index];
+
+		l_block.records.add(aRecord);
+		l_block.end = anOffset;
+
+		if (l_block.records.size() == BLOCK_SIZE) {
+			handOver(l_index);
+		}
+	}
+
+	/**
+	 * Passes the remaining records to the workers, waits until all blocks have
+	 * been handled and stops the workers.
+	 * 
+	 * @throws IOException if the thread has been interrupted while waiting
+	 */
+	void close() throws IOException {
+		try {
+			for (int i = 0; i < queues.size(); i++) {
+				if (!blocks[i].records.isEmpty()) {
+					handOver(i);
+				}
+			}
+			for (int i = 0; i < workers; i++) {
+				queues.get(i % queues.size()).put(END);
+			}
+			for (Future<?> l_future : futures) {
+				l_future.get();
+			}
+		} catch (InterruptedException anEx) {
+			Thread.currentThread().interrupt();
+
+			throw new InterruptedIOException();
+		} catch (ExecutionException anEx) {
+			fail(anEx.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		checkError();
+	}
+
+	/**
+	 * Rethrows the first error of a worker.
+	 */
+	private synchronized void checkError() {
+		if (error instanceof RuntimeException) {
+			throw (RuntimeException) error;
+		}
+		if (error instanceof Error) {
+			throw (Error) error;
+		}
+		if (error != null) {
+			throw SYS.LOG.exception(error);
+		}
+	}
+
+	/**
+	 * Commits the progress of all blocks which have been handled without a gap.
+	 */
+	private synchronized void commit(Block aBlock) {
+		done.put(aBlock.seq, aBlock);
+
+		for (Block l_block = done.remove(committed); l_block != null; l_block = done.remove(committed)) {
+			checkpoint.update(l_block.end, l_block.records.size());
+			committed++;
+		}
+	}
+
+	private synchronized void fail(Throwable anEx) {
+		if (error == null) {
+			error = anEx;
+		}
+	}
+
+	/**
+	 * Passes the block of a queue to the workers and starts a new block. Waits
+	 * while the queue is full.
+	 */
+	private void handOver(int anIndex) throws IOException {
+		checkError();
+
+		Block l_block = blocks[anIndex];
+
+		l_block.seq = next++;
+		blocks[anIndex] = new Block();
+
+		try {
+			queues.get(anIndex).put(l_block);
+		} catch (InterruptedException anEx) {
+			Thread.currentThread().interrupt();
+
+			throw new InterruptedIOException();
+		}
+	}
+
+	/**
+	 * @return the hash of the raw values of the key columns
+	 */
+	private int hash(CSVRecord aRecord) {
+		int l_ret = 1;
+
+		for (int l_key : keys) {
+			l_ret = 31 * l_ret + aRecord.getValue(l_key).hashCode();
+		}
+		return l_ret ^ (l_ret >>> 16);
+	}
+
+	private synchronized boolean isFailed() {
+		return error != null;
+	}
+
+	/**
+	 * The loop of a worker thread. After an error the blocks are taken from the
+	 * queue but not handled, so the reader does not wait for ever.
+	 */
+	private void work(BlockingQueue<Block> aQueue) {
+		while (true) {
+			Block l_block;
+
+			try {
+				l_block = aQueue.take();
+			} catch (InterruptedException anEx) {
+				// the workers are interrupted when the dispatcher is closed
+				return;
+			}
+			if (l_block == END) {
+				return;
+			}
+			if (isFailed()) {
+				continue;
+			}
+			try {
+				for (CSVRecord l_rec : l_block.records) {
+					target.handle(l_rec);
+				}
+				if (checkpoint != null) {
+					commit(l_block);
+				}
+			} catch (Throwable anEx) {
+				fail(anEx);
+			}
+		}
+	}
+}
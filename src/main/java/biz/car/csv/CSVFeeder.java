@@ -8,20 +8,70 @@ package biz.car.csv;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 
+import biz.car.SYS;
 import biz.car.XRunnable;
+import biz.car.bundle.MSG;
 import biz.car.config.CConfig;
+import biz.car.io.XFileReader;
 
 /**
  * Processes the records of a CSV file.<br>
  * This class loops over the input records and delegates the processing of the
  * individual records to a <code>CSVHandler</code>.
+ * <p>
+ * If the PARALLEL parameter is <code>true</code> the input file is split into
+ * byte ranges at record boundaries, which are parsed on a fork-join pool. The
+ * records are still passed to the handler by a single thread. With the
+ * ORDERED parameter set to <code>false</code> the records of a range are
+ * delivered as soon as the range is parsed, otherwise the order of the input
+ * file is kept. A gzip compressed input file is always read sequentially.
+ * <p>
+ * If the ROW_CACHE parameter is <code>true</code> the records are read from
+ * and written to a binary sidecar cache of the input file, see
+ * {@link CSVReader#setRowCache(boolean)}.
+ * <p>
+ * If the CHECKPOINT parameter is <code>true</code> the progress is saved to a
+ * sidecar file of the input file every CHECKPOINT_INTERVAL records. The file
+ * is then read in mapped mode. A new run on the same input file continues
+ * after the last checkpoint. The sidecar file is deleted when the whole file
+ * has been handled. Checkpoints are not taken for unordered parallel runs and
+ * for compressed input files.
+ * <p>
+ * If the WORKERS parameter is greater than <code>0</code> the records are read
+ * by a single thread and passed to the handler by the given number of worker
+ * threads, see {@link CSVDispatcher}. QUEUE_SIZE is the number of blocks of
+ * records which may wait for a worker, the reader waits if the queue is full.
+ * DELIVERY is one of <code>unordered</code> (the default),
+ * <code>partitioned</code> or <code>ordered</code>. In unordered and
+ * partitioned delivery the handler must be thread safe. In partitioned
+ * delivery the records with equal values in the PARTITION columns are handled
+ * by the same worker in file order. In ordered delivery a single worker handles
+ * all records in file order. Checkpoints are not taken in partitioned
+ * delivery.
  *
  * @version 2.0.0 08.01.2026 08:32:08
  */
 public class CSVFeeder extends CConfig implements XRunnable {
 
-	private CSVHandler myConsumer;
+	private CSVBatch myBatch;
+	private CSVBatchHandler myBatchHandler;
+	private CSVCheckpoint myCheckpoint;
+	private CSVConsumer myConsumer;
+	private CSVHandler myHandler;
 	private CSVReader rdr;
 
 	/**
@@ -32,6 +82,23 @@ public class CSVFeeder extends CConfig implements XRunnable {
 
 		rdr = new CSVReader();
 		myConsumer = aConsumer;
+		myHandler = aConsumer;
+	}
+
+	/**
+	 * Creates a <code>CSVFeeder</code> instance which passes the input records
+	 * in columnar batches.
+	 * 
+	 * @param aConsumer the handler of the batches
+	 * @param aBatch    the batch with the declared columns
+	 */
+	public CSVFeeder(CSVBatchHandler aConsumer, CSVBatch aBatch) {
+		super();
+
+		rdr = new CSVReader();
+		myConsumer = aConsumer;
+		myBatchHandler = aConsumer;
+		myBatch = Objects.requireNonNull(aBatch);
 	}
 
 	@Override
@@ -48,25 +115,70 @@ public class CSVFeeder extends CConfig implements XRunnable {
 
 	@Override
 	public void exec() {
+		boolean l_done = false;
+
 		try {
 			File l_in = inputFile();
 
 			myConsumer.onInit();
-			rdr.open(l_in);
+			rdr.setRowCache(getBool(ROW_CACHE, false));
 
-			CSVRecord l_rec = rdr.readRecord();
+			if (getBool(CHECKPOINT, false)) {
+				rdr.setMapped(true);
+			}
 
-			while (l_rec != null) {
-				myConsumer.handle(l_rec);
+			if (myBatchHandler != null) {
+				execBatch(l_in);
+			} else if (getInt(WORKERS, 0) > 0) {
+				execDispatch(l_in);
+			} else if (getBool(PARALLEL, false) && !XFileReader.isGzip(l_in)) {
+				execParallel(l_in);
+			} else {
+				rdr.open(l_in);
+				resume(l_in);
 
-				l_rec = rdr.readRecord();
+				CSVRecord l_rec = rdr.readRecord();
+
+				while (l_rec != null) {
+					myHandler.handle(l_rec);
+
+					if (myCheckpoint != null) {
+						myCheckpoint.update(rdr.position(), 1);
+					}
+					l_rec = rdr.readRecord();
+				}
 			}
 			myConsumer.onExit();
+			l_done = true;
 		} catch (IOException anEx) {
 			myConsumer.onError(anEx);
+		} finally {
+			if (myCheckpoint != null) {
+				if (l_done) {
+					myCheckpoint.delete();
+				} else {
+					myCheckpoint.save();
+				}
+				myCheckpoint = null;
+			}
 		}
 	}
 
+	/**
+	 * Adds a predicate on the raw value of a column. Records which do not satisfy
+	 * the predicate are skipped before they are created.
+	 * 
+	 * @param aColumn the name of the column
+	 * @param aTest   the predicate on the raw field value
+	 * @return this feeder
+	 * @see CSVReader#addFilter(String, Predicate)
+	 */
+	public CSVFeeder filter(String aColumn, Predicate<CharSequence> aTest) {
+		rdr.addFilter(aColumn, aTest);
+
+		return this;
+	}
+
 	/**
 	 * The value of the PATH parameter in the config file is taken as the file name.
 	 * 
@@ -78,4 +190,168 @@ public class CSVFeeder extends CConfig implements XRunnable {
 
 		return l_ret;
 	}
+
+	/**
+	 * Passes the input records in columnar batches to the batch handler.
+	 * 
+	 * @param aFile the input CSV file
+	 * @throws IOException if the input file could not be read
+	 */
+	private void execBatch(File aFile) throws IOException {
+		rdr.open(aFile);
+		resume(aFile);
+
+		while (rdr.readBatch(myBatch) > 0) {
+			myBatchHandler.handle(myBatch);
+
+			if (myCheckpoint != null) {
+				myCheckpoint.update(rdr.position(), myBatch.size());
+			}
+		}
+	}
+
+	/**
+	 * Reads the input records and passes them to a pool of worker threads.
+	 * 
+	 * @param aFile the input CSV file
+	 * @throws IOException if the input file could not be read
+	 */
+	private void execDispatch(File aFile) throws IOException {
+		int l_workers = getInt(WORKERS);
+		CSVDispatcher.Delivery l_delivery = CSVDispatcher.Delivery
+				.valueOf(getString(DELIVERY, CSVDispatcher.Delivery.UNORDERED.name()).toUpperCase());
+		int[] l_keys = null;
+
+		rdr.open(aFile);
+
+		if (l_delivery != CSVDispatcher.Delivery.PARTITIONED) {
+			resume(aFile);
+		} else {
+			l_keys = asStringList(PARTITION).stream()
+					.mapToInt(f -> {
+						int l_ret = rdr.header().indexOf(f.trim());
+
+						if (l_ret == -1) {
+							throw SYS.LOG.exception(MSG.CSV_COLUMN_NOT_FOUND, f, aFile.getPath());
+						}
+						return l_ret;
+					})
+					.toArray();
+		}
+		CSVDispatcher l_dispatcher = new CSVDispatcher(myHandler, l_workers,
+				getInt(QUEUE_SIZE, l_workers * 2), l_delivery, l_keys, myCheckpoint);
+
+		try {
+			CSVRecord l_rec = rdr.readRecord();
+
+			while (l_rec != null) {
+				l_dispatcher.add(l_rec, myCheckpoint == null ? -1 : rdr.position());
+
+				l_rec = rdr.readRecord();
+			}
+		} catch (IOException | RuntimeException anEx) {
+			// an error of a worker reported by close is attached to the first error
+			try {
+				l_dispatcher.close();
+			} catch (IOException | RuntimeException | Error aCloseEx) {
+				// a worker error which add has already thrown is thrown again
+				if (aCloseEx != anEx) {
+					anEx.addSuppressed(aCloseEx);
+				}
+			}
+			throw anEx;
+		}
+		l_dispatcher.close();
+	}
+
+	/**
+	 * Parses the input file in byte ranges on a fork-join pool.
+	 * 
+	 * @param aFile the input CSV file
+	 * @throws IOException if the input file could not be read
+	 */
+	private void execParallel(File aFile) throws IOException {
+		rdr.setMapped(true);
+		rdr.open(aFile);
+
+		ForkJoinPool l_pool = new ForkJoinPool();
+		boolean l_ordered = getBool(ORDERED, true);
+
+		if (l_ordered) {
+			resume(aFile);
+		}
+
+		try (CSVSplitter l_split = rdr.splitter()) {
+			long[] l_bounds = l_split.split(rdr.position(), l_split.size(),
+					CSVSplitter.CHUNK_SIZE, l_pool);
+			CompletionService<List<CSVRecord>> l_cs = new ExecutorCompletionService<>(l_pool);
+			Deque<Future<List<CSVRecord>>> l_queue = new ArrayDeque<>();
+			int l_max = l_pool.getParallelism() * 2;
+			int l_next = 0;
+			int l_handled = 0;
+
+			while (l_next < l_bounds.length - 1 || !l_queue.isEmpty()) {
+				// keep a bounded number of ranges in progress
+				while (l_next < l_bounds.length - 1 && l_queue.size() < l_max) {
+					long l_start = l_bounds[l_next];
+					long l_end = l_bounds[l_next + 1];
+
+					Callable<List<CSVRecord>> l_task = () -> l_split.parse(l_start, l_end);
+
+					l_queue.add(l_ordered ? l_pool.submit(l_task) : l_cs.submit(l_task));
+					l_next++;
+				}
+				Future<List<CSVRecord>> l_done = l_queue.peek();
+
+				if (!l_ordered) {
+					l_done = l_cs.take();
+				}
+				l_queue.remove(l_done);
+
+				List<CSVRecord> l_recs = l_done.get();
+
+				for (CSVRecord l_rec : l_recs) {
+					myHandler.handle(l_rec);
+				}
+				if (myCheckpoint != null) {
+					// in ordered mode the ranges are handled in file order
+					myCheckpoint.update(l_bounds[++l_handled], l_recs.size());
+				}
+			}
+		} catch (UncheckedIOException anEx) {
+			throw anEx.getCause();
+		} catch (ExecutionException anEx) {
+			Throwable l_cause = anEx.getCause();
+
+			if (l_cause instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) l_cause).getCause();
+			}
+			throw exception(l_cause);
+		} catch (InterruptedException anEx) {
+			Thread.currentThread().interrupt();
+
+			throw new InterruptedIOException();
+		} finally {
+			l_pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Opens the checkpoint of the input file if checkpoints are switched on. The
+	 * reader is moved to the offset of a previous checkpoint.
+	 * 
+	 * @param aFile the input CSV file
+	 * @throws IOException if the reader could not be moved
+	 */
+	private void resume(File aFile) throws IOException {
+		if (!getBool(CHECKPOINT, false) || rdr.isCompressed()) {
+			return;
+		}
+		myCheckpoint = CSVCheckpoint.open(aFile, rdr.header(), getInt(CHECKPOINT_INTERVAL, CSVCheckpoint.INTERVAL));
+
+		if (myCheckpoint.offset() >= 0) {
+			rdr.seek(myCheckpoint.offset());
+			SYS.LOG.info(MSG.CSV_RESUMED, aFile.getPath(), myCheckpoint.count());
+		}
+	}
 }
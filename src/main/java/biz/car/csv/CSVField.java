@@ -6,8 +6,9 @@
 
 package biz.car.csv;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Objects;
-import java.util.regex.Matcher;
 
 /**
  * Functions to convert field content from CSV format to display format and vice
@@ -38,15 +39,42 @@ public interface CSVField {
 	 */
 	static String toCSVFormat(String aValue) {
 		String l_ret = Objects.requireNonNull(aValue);
-		Matcher l_matcher = CSV.DQ_PATTERN.matcher(aValue);
 
-		if (l_matcher.find()) {
-			l_ret = aValue.replace(CSV.DQ, CSV.DQ2);
-			l_ret = CSV.DQ + l_ret + CSV.DQ;
+		if (needsQuotes(aValue, CSV.DELIMITER)) {
+			StringBuilder l_sb = new StringBuilder(aValue.length() + 8);
+
+			try {
+				encode(aValue, l_sb);
+			} catch (IOException anEx) {
+				// a StringBuilder does not throw
+				throw new UncheckedIOException(anEx);
+			}
+			l_ret = l_sb.toString();
 		}
 		return l_ret;
 	};
 
+	/**
+	 * Writes a text value in CSV format.
+	 * <p>
+	 * The value is scanned once. If it does not contain a new line, a double
+	 * quote or the given field separator it is written unchanged, otherwise it is
+	 * written as described in {@link #toCSVFormat(String)}. No intermediate
+	 * string is created.
+	 * 
+	 * @param aValue the text value to write
+	 * @param aDelim the field separator
+	 * @param anOut  the target of the value
+	 * @throws IOException if an error occurred when writing
+	 */
+	static void toCSVFormat(String aValue, String aDelim, Appendable anOut) throws IOException {
+		if (needsQuotes(aValue, aDelim)) {
+			encode(aValue, anOut);
+		} else {
+			anOut.append(aValue);
+		}
+	}
+
 	/**
 	 * Converts a CSV field value into text format.
 	 * <p>
@@ -69,4 +97,45 @@ public interface CSVField {
 		}
 		return l_ret;
 	};
+
+	/**
+	 * Writes a value enclosed by quotes with all quotes doubled.
+	 */
+	private static void encode(String aValue, Appendable anOut) throws IOException {
+		int l_len = aValue.length();
+		int l_from = 0;
+
+		anOut.append('"');
+
+		for (int i = 0; i < l_len; i++) {
+			if (aValue.charAt(i) == '"') {
+				anOut.append(aValue, l_from, i + 1);
+				anOut.append('"');
+				l_from = i + 1;
+			}
+		}
+		anOut.append(aValue, l_from, l_len);
+		anOut.append('"');
+	}
+
+	/**
+	 * Checks if a value contains a new line, a double quote or the field
+	 * separator.
+	 */
+	private static boolean needsQuotes(String aValue, String aDelim) {
+		char l_delim = aDelim.charAt(0);
+		int l_len = aValue.length();
+
+		for (int i = 0; i < l_len; i++) {
+			char l_char = aValue.charAt(i);
+
+			if (l_char == '"' || l_char == '\n') {
+				return true;
+			}
+			if (l_char == l_delim && aValue.startsWith(aDelim, i)) {
+				return true;
+			}
+		}
+		return false;
+	}
 }
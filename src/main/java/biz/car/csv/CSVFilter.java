@@ -0,0 +1,99 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A conjunction of column predicates which are tested on the raw field values
+ * of a parsed record.<br>
+ * A record is only created if all predicates are satisfied. The predicates
+ * see the field values in CSV format, i.e. quoted values include the quotes.
+ * <p>
+ * An instance must not be shared between threads, see {@link #copy()}.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CSVFilter {
+
+	private int[] slots;
+	private List<Predicate<CharSequence>> tests;
+	private RawField view;
+
+	/**
+	 * Creates a default <code>CSVFilter</code> instance.
+	 * 
+	 * @param aSlots the field index in the parser for each predicate
+	 * @param aTests the predicates
+	 */
+	CSVFilter(int[] aSlots, List<Predicate<CharSequence>> aTests) {
+		super();
+
+		slots = aSlots;
+		tests = aTests;
+		view = new RawField();
+	}
+
+	/**
+	 * @return a filter with the same predicates for another thread
+	 */
+	CSVFilter copy() {
+		return new CSVFilter(slots, tests);
+	}
+
+	/**
+	 * Tests the predicates on a record given by UTF-8 encoded bytes.
+	 * 
+	 * @param aBuffer the buffer holding the record
+	 * @param aStarts the start offsets of the fields
+	 * @param anEnds  the end offsets (exclusive) of the fields
+	 * @param aCount  the number of valid offsets
+	 * @return <code>true</code> if all predicates are satisfied
+	 */
+	boolean test(ByteBuffer aBuffer, int[] aStarts, int[] anEnds, int aCount) {
+		for (int i = 0; i < slots.length; i++) {
+			int l_slot = slots[i];
+
+			if (l_slot < aCount) {
+				view.set(aBuffer, aStarts[l_slot], anEnds[l_slot]);
+			} else {
+				view.set(aBuffer, 0, 0);
+			}
+			if (!tests.get(i).test(view)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Tests the predicates on a record given by characters.
+	 * 
+	 * @param aBuffer the buffer holding the record
+	 * @param aStarts the start offsets of the fields
+	 * @param anEnds  the end offsets (exclusive) of the fields
+	 * @param aCount  the number of valid offsets
+	 * @return <code>true</code> if all predicates are satisfied
+	 */
+	boolean test(char[] aBuffer, int[] aStarts, int[] anEnds, int aCount) {
+		for (int i = 0; i < slots.length; i++) {
+			int l_slot = slots[i];
+
+			if (l_slot < aCount) {
+				view.set(aBuffer, aStarts[l_slot], anEnds[l_slot]);
+			} else {
+				view.set(aBuffer, 0, 0);
+			}
+			if (!tests.get(i).test(view)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,227 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Objects;
+
+import biz.car.SYS;
+import biz.car.bundle.MSG;
+import biz.car.io.DirectoryListener;
+import biz.car.io.DirectoryWatcher;
+
+/**
+ * Passes the records of a growing CSV file to a handler while the file is
+ * appended to.
+ * <p>
+ * The file is read by a <code>CSVReader</code> in follow mode, which keeps the
+ * header and the file offset after the last complete record. When the records
+ * available so far have been passed to the handler, the follower waits for a
+ * modification event of the directory of the file, see
+ * {@link DirectoryWatcher}. Then only the records appended since are read. A
+ * last record without a line break is held back until it is complete. If no
+ * event arrives, the file is checked after the poll interval anyway.
+ * <p>
+ * If the file is truncated or replaced by a new file, e.g. by a log rotation,
+ * the records appended to the replaced file are still passed to the handler.
+ * Then the change is reported to the handler as an error and the follower
+ * stops. The new file may be followed by a new follower.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+public class CSVFollower implements DirectoryListener {
+
+	/**
+	 * The default interval in milliseconds to check the file without an event.
+	 */
+	public static final long POLL_INTERVAL = 10000;
+
+	private boolean bModified;
+	private boolean bStopped;
+	private Path file;
+	private Object fileKey;
+	private CSVHandler handler;
+	private long offset;
+	private long pollInterval = POLL_INTERVAL;
+	private CSVReader rdr;
+
+	/**
+	 * Creates a default <code>CSVFollower</code> instance.
+	 * 
+	 * @param aReader  the reader of the file, which must not have been opened
+	 * @param aHandler the handler of the records
+	 */
+	public CSVFollower(CSVReader aReader, CSVHandler aHandler) {
+		super();
+
+		rdr = Objects.requireNonNull(aReader);
+		handler = Objects.requireNonNull(aHandler);
+	}
+
+	/**
+	 * Follows a file until this follower is stopped or the thread is
+	 * interrupted. An error is reported to the handler.
+	 * 
+	 * @param aFile the CSV file to follow
+	 */
+	public void follow(File aFile) {
+		DirectoryWatcher l_watcher = new DirectoryWatcher(getClass().getSimpleName());
+
+		try {
+			file = aFile.toPath().toAbsolutePath();
+			rdr.setFollow(true);
+			rdr.open(aFile);
+			fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+
+			try {
+				l_watcher.register(file.getParent(), this);
+				l_watcher.start();
+			} catch (RuntimeException anEx) {
+				handler.onError(anEx);
+
+				return;
+			}
+			handler.onInit();
+			deliver();
+
+			while (await()) {
+				BasicFileAttributes l_attrs = attributes();
+				boolean l_replaced = l_attrs != null && l_attrs.fileKey() != null
+						&& !l_attrs.fileKey().equals(fileKey);
+
+				if (l_attrs != null && !l_replaced && l_attrs.size() < getOffset()) {
+					handler.onError(SYS.LOG.exception(MSG.CSV_FILE_REPLACED, file));
+
+					return;
+				}
+				// the channel still reads a replaced file
+				if (rdr.refresh()) {
+					deliver();
+				}
+				if (l_replaced) {
+					handler.onError(SYS.LOG.exception(MSG.CSV_FILE_REPLACED, file));
+
+					return;
+				}
+			}
+			handler.onExit();
+		} catch (IOException anEx) {
+			handler.onError(anEx);
+		} finally {
+			l_watcher.stop();
+
+			try {
+				rdr.close();
+			} catch (IOException anEx) {
+				handler.onError(anEx);
+			}
+		}
+	}
+
+	/**
+	 * @return the file offset after the last record passed to the handler
+	 */
+	public synchronized long getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Wakes up the follower when the followed file has been created or
+	 * modified.
+	 */
+	@Override
+	public void onEvent(Path aPath, List<WatchEvent<?>> anEvents) {
+		for (WatchEvent<?> l_event : anEvents) {
+			boolean l_modified = l_event.kind() == StandardWatchEventKinds.ENTRY_MODIFY
+					|| l_event.kind() == StandardWatchEventKinds.ENTRY_CREATE;
+
+			if (l_modified && aPath.resolve((Path) l_event.context()).equals(file)) {
+				synchronized (this) {
+					bModified = true;
+					notifyAll();
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Assigns the interval to check the file if no modification event arrives.
+	 * 
+	 * @param anInterval the interval in milliseconds
+	 */
+	public void setPollInterval(long anInterval) {
+		if (anInterval <= 0) {
+			throw new IllegalArgumentException(String.valueOf(anInterval));
+		}
+		pollInterval = anInterval;
+	}
+
+	/**
+	 * Stops following the file. The records read so far have been passed to the
+	 * handler.
+	 */
+	public synchronized void stop() {
+		bStopped = true;
+		notifyAll();
+	}
+
+	/**
+	 * @return the attributes of the followed file or <code>null</code> if there
+	 *         is no file at its path, e.g. while it is rotated
+	 */
+	private BasicFileAttributes attributes() throws IOException {
+		try {
+			return Files.readAttributes(file, BasicFileAttributes.class);
+		} catch (NoSuchFileException anEx) {
+			return null;
+		}
+	}
+
+	/**
+	 * Waits for a modification event or the poll interval.
+	 * 
+	 * @return <code>false</code> if this follower has been stopped
+	 */
+	private synchronized boolean await() {
+		if (!bModified && !bStopped) {
+			try {
+				wait(pollInterval);
+			} catch (InterruptedException anEx) {
+				Thread.currentThread().interrupt();
+				bStopped = true;
+			}
+		}
+		bModified = false;
+
+		return !bStopped;
+	}
+
+	/**
+	 * Passes the complete records available so far to the handler.
+	 */
+	private void deliver() throws IOException {
+		CSVRecord l_rec = rdr.readRecord();
+
+		while (l_rec != null) {
+			handler.handle(l_rec);
+
+			l_rec = rdr.readRecord();
+		}
+		synchronized (this) {
+			offset = rdr.position();
+		}
+	}
+}
@@ -13,7 +13,7 @@ package biz.car.csv;
  *
  * @version 2.0.0 08.01.2026 08:32:08
  */
-public interface CSVHandler {
+public interface CSVHandler extends CSVConsumer {
 
 	/**
 	 * Processes a CSV record
@@ -21,22 +21,4 @@ public interface CSVHandler {
 	 * @param aRecord the record to process
 	 */
 	void handle(CSVRecord aRecord);
-
-	/**
-	 * Called when an exception occurred during the input process.
-	 * 
-	 * @param anEx the exception thrown by the <code>CSVFeeder</code>.
-	 */
-	void onError(Exception anEx);
-
-	/**
-	 * Called once after the CSVFeeder has finished the processing the input
-	 * records.
-	 */
-	void onExit();
-
-	/**
-	 * Called once before the CSVFeeder starts processing the input records.
-	 */
-	void onInit();
 }
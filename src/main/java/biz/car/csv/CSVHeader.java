@@ -16,6 +16,16 @@ import java.util.Map;
  */
 public interface CSVHeader {
 
+	/**
+	 * Constructor method for a column accessor.<br>
+	 * The column index is resolved once, so the accessor can be cached and used
+	 * for every record with this header.
+	 * 
+	 * @param aName the name of the column
+	 * @return the new column accessor
+	 */
+	CSVColumn Column(String aName);
+
 	/**
 	 * @return the list of CSV column names
 	 */
@@ -29,6 +39,20 @@ public interface CSVHeader {
 	 */
 	CSVHeader Delimiter(String aDelim);
 
+	/**
+	 * @return the CSV field delimiter of this header
+	 */
+	String delimiter();
+
+	/**
+	 * Looks up the index of a column.
+	 * 
+	 * @param aName the name of the column
+	 * @return the index of the first column with the given name or
+	 *         <code>-1</code> if the column is not defined
+	 */
+	int indexOf(String aName);
+
 	/**
 	 * Assigns the quote character to this header.
 	 * 
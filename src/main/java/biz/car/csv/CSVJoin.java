@@ -0,0 +1,598 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import biz.car.CAR;
+import biz.car.SYS;
+import biz.car.bundle.MSG;
+
+/**
+ * Joins the records of two CSV files on one or more key columns.
+ * <p>
+ * The right input is the build side. If its records fit into the memory
+ * budget, they are held in a hash table and the left input is streamed
+ * against it, so the output keeps the order of the left input. Otherwise both
+ * inputs are split by the hash of their keys into partitions in temporary
+ * files, which are joined one by one. A partition of the right input which
+ * still exceeds the budget is joined by sorting both partitions and merging
+ * them. A group of right records with equal keys which exceeds the budget
+ * there is written to a temporary file and read again for each matching left
+ * record.
+ * <p>
+ * Keys are compared in display format without leading and trailing blanks.
+ * The output header holds the left columns followed by the right columns
+ * except the key columns. A right column with the name of a left column gets
+ * the suffix <code>_2</code>. An anti join returns the unmatched left records
+ * with the left header.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+public class CSVJoin {
+
+	/**
+	 * The join modes.
+	 */
+	public enum Mode {
+		/**
+		 * The left records without a matching right record.
+		 */
+		ANTI,
+		/**
+		 * The combinations of matching left and right records.
+		 */
+		INNER,
+		/**
+		 * Like <code>INNER</code>, left records without a matching right record
+		 * are combined with empty right fields.
+		 */
+		LEFT
+	}
+
+	private static final int MAX_PARTITIONS = 256;
+
+	/**
+	 * The target of the joined records.
+	 */
+	private interface Sink {
+
+		void accept(CSVRecord aRecord) throws IOException;
+	}
+
+	/**
+	 * A source of records.
+	 */
+	private interface Source {
+
+		CSVRecord next() throws IOException;
+	}
+
+	private long budget = CSVSorter.BUDGET;
+	private CSVHeader hdr;
+	private CSVHeader leftHdr;
+	private int[] leftIndex;
+	private List<String> leftKeys = new ArrayList<>();
+	private Mode mode;
+	private CSVHeader rightHdr;
+	private int[] rightIndex;
+	private int[] rightKeep;
+	private List<String> rightKeys = new ArrayList<>();
+	private File tempDir;
+
+	/**
+	 * Creates a default <code>CSVJoin</code> instance.
+	 * 
+	 * @param aMode the join mode
+	 */
+	public CSVJoin(Mode aMode) {
+		super();
+
+		mode = aMode;
+	}
+
+	/**
+	 * Adds a pair of key columns.
+	 * 
+	 * @param aLeftColumn  the name of the key column in the left input
+	 * @param aRightColumn the name of the key column in the right input
+	 */
+	public void addKey(String aLeftColumn, String aRightColumn) {
+		leftKeys.add(aLeftColumn.trim());
+		rightKeys.add(aRightColumn.trim());
+	}
+
+	/**
+	 * @return the header of the joined records, available when the join has
+	 *         been started
+	 */
+	public CSVHeader header() {
+		return hdr;
+	}
+
+	/**
+	 * Joins the remaining records of two open readers and passes the joined
+	 * records to a handler.
+	 * 
+	 * @param aLeft    the reader of the left input
+	 * @param aRight   the reader of the right input
+	 * @param aHandler the handler of the joined records
+	 * @throws IOException if an error occurred when reading the inputs
+	 */
+	public void join(CSVReader aLeft, CSVReader aRight, CSVHandler aHandler) throws IOException {
+		run(aLeft, aRight, aHandler::handle);
+	}
+
+	/**
+	 * Joins the remaining records of two open readers and writes the joined
+	 * records to a writer.
+	 * 
+	 * @param aLeft    the reader of the left input
+	 * @param aRight   the reader of the right input
+	 * @param anOutput the writer of the joined records
+	 * @throws IOException if an error occurred when reading or writing
+	 */
+	public void join(CSVReader aLeft, CSVReader aRight, CSVWriter anOutput) throws IOException {
+		run(aLeft, aRight, anOutput::write);
+
+		if (anOutput.header() == null) {
+			anOutput.writeHeader(hdr.columns());
+		}
+	}
+
+	/**
+	 * Assigns the memory budget for the records of the right input held in
+	 * memory.
+	 * 
+	 * @param aBytes the memory budget in bytes
+	 */
+	public void setBudget(long aBytes) {
+		if (aBytes <= 0) {
+			throw new IllegalArgumentException(String.valueOf(aBytes));
+		}
+		budget = aBytes;
+	}
+
+	/**
+	 * Assigns the directory for the temporary files.
+	 * 
+	 * @param aDir the directory or <code>null</code> for the default temporary
+	 *             directory
+	 */
+	public void setTempDirectory(File aDir) {
+		tempDir = aDir;
+	}
+
+	/**
+	 * Compares two keys in the order of the sorter.
+	 */
+	private int compare(List<String> aKey1, List<String> aKey2) {
+		for (int i = 0; i < aKey1.size(); i++) {
+			int l_ret = aKey1.get(i).compareTo(aKey2.get(i));
+
+			if (l_ret != 0) {
+				return l_ret;
+			}
+		}
+		return 0;
+	}
+
+	private File createTempFile() throws IOException {
+		return File.createTempFile(getClass().getSimpleName(), CAR._csv, tempDir);
+	}
+
+	/**
+	 * Passes the joined records of a left record and its matches to the sink.
+	 */
+	private void emit(CSVRecord aLeft, List<CSVRecord> aMatches, Sink aSink) throws IOException {
+		if (mode == Mode.ANTI) {
+			if (aMatches == null || aMatches.isEmpty()) {
+				aSink.accept(aLeft);
+			}
+			return;
+		}
+		if (aMatches == null || aMatches.isEmpty()) {
+			if (mode == Mode.LEFT) {
+				aSink.accept(merge(aLeft, null));
+			}
+			return;
+		}
+		for (CSVRecord l_right : aMatches) {
+			aSink.accept(merge(aLeft, l_right));
+		}
+	}
+
+	/**
+	 * Passes the joined records of a left record and a group of matching right
+	 * records held in a temporary file to the sink.
+	 */
+	private void emit(CSVRecord aLeft, File aGroup, Sink aSink) throws IOException {
+		if (mode == Mode.ANTI) {
+			return;
+		}
+		try (CSVReader l_in = open(aGroup, rightHdr)) {
+			for (CSVRecord l_rec = read(l_in, rightHdr); l_rec != null; l_rec = read(l_in, rightHdr)) {
+				aSink.accept(merge(aLeft, l_rec));
+			}
+		}
+	}
+
+	/**
+	 * Resolves the key columns and creates the output header.
+	 */
+	private void init(CSVReader aLeft, CSVReader aRight) {
+		leftHdr = aLeft.header();
+		rightHdr = aRight.header();
+		leftIndex = resolve(leftHdr, leftKeys, aLeft.getName());
+		rightIndex = resolve(rightHdr, rightKeys, aRight.getName());
+
+		if (mode == Mode.ANTI) {
+			hdr = leftHdr;
+
+			return;
+		}
+		List<String> l_columns = new ArrayList<>(leftHdr.columns());
+		Set<String> l_names = new HashSet<>(l_columns);
+		Set<Integer> l_keys = new HashSet<>();
+		List<Integer> l_keep = new ArrayList<>();
+
+		for (int l_ind : rightIndex) {
+			l_keys.add(l_ind);
+		}
+		for (int i = 0; i < rightHdr.columns().size(); i++) {
+			if (!l_keys.contains(i)) {
+				String l_name = rightHdr.columns().get(i);
+
+				while (!l_names.add(l_name)) {
+					l_name += "_2"; //$NON-NLS-1$
+				}
+				l_columns.add(l_name);
+				l_keep.add(i);
+			}
+		}
+		rightKeep = l_keep.stream().mapToInt(Integer::intValue).toArray();
+		hdr = CSVRecord.Header(l_columns).Delimiter(leftHdr.delimiter());
+	}
+
+	/**
+	 * Joins a pair of partitions with a hash table or by sorting them.
+	 */
+	private void joinPartition(File aLeft, File aRight, Sink aSink) throws IOException {
+		Map<List<String>, List<CSVRecord>> l_table = new HashMap<>();
+		long l_bytes = 0;
+
+		if (aLeft.length() == 0) {
+			return;
+		}
+		// an empty partition file has no header
+		try (CSVReader l_right = aRight.length() == 0 ? null : open(aRight, rightHdr)) {
+			CSVRecord l_rec = l_right == null ? null : read(l_right, rightHdr);
+
+			while (l_rec != null) {
+				l_table.computeIfAbsent(key(l_rec, rightIndex), k -> new ArrayList<>(1)).add(l_rec);
+				l_bytes += CSVSorter.sizeOf(l_rec) + 64;
+
+				if (l_bytes >= budget) {
+					l_table = null;
+					break;
+				}
+				l_rec = read(l_right, rightHdr);
+			}
+		}
+		if (l_table == null) {
+			sortMerge(aLeft, aRight, aSink);
+
+			return;
+		}
+		try (CSVReader l_left = open(aLeft, leftHdr)) {
+			probe(() -> read(l_left, leftHdr), l_table, aSink);
+		}
+	}
+
+	/**
+	 * @return the display values of the key columns of a record
+	 */
+	private List<String> key(CSVRecord aRecord, int[] anIndex) {
+		String[] l_ret = new String[anIndex.length];
+
+		for (int i = 0; i < anIndex.length; i++) {
+			l_ret[i] = CSVField.toDisplayFormat(aRecord.getValue(anIndex[i])).trim();
+		}
+		return Arrays.asList(l_ret);
+	}
+
+	/**
+	 * Combines a left record and a right record. A missing right record gives
+	 * empty fields.
+	 */
+	private CSVRecord merge(CSVRecord aLeft, CSVRecord aRight) {
+		List<String> l_values = new ArrayList<>(hdr.columns().size());
+
+		l_values.addAll(aLeft.values());
+
+		for (int l_ind : rightKeep) {
+			l_values.add(aRight == null ? "" : aRight.getValue(l_ind)); //$NON-NLS-1$
+		}
+		return hdr.Record(l_values);
+	}
+
+	/**
+	 * Opens a temporary file of this join written with the given header.
+	 */
+	private CSVReader open(File aFile, CSVHeader aHeader) throws IOException {
+		CSVReader l_ret = new CSVReader();
+
+		l_ret.setDelimiter(aHeader.delimiter());
+		l_ret.open(aFile);
+
+		return l_ret;
+	}
+
+	/**
+	 * Writes records into partition files by the hash of their keys.
+	 */
+	private void partition(Iterator<CSVRecord> aHeld, Source aSource, int[] anIndex, File[] aFiles)
+			throws IOException {
+		CSVWriter[] l_out = new CSVWriter[aFiles.length];
+
+		try {
+			for (int i = 0; i < aFiles.length; i++) {
+				aFiles[i] = createTempFile();
+				l_out[i] = new CSVWriter();
+				l_out[i].open(aFiles[i]);
+			}
+			CSVRecord l_rec = aHeld.hasNext() ? aHeld.next() : aSource.next();
+
+			while (l_rec != null) {
+				int l_part = (key(l_rec, anIndex).hashCode() & Integer.MAX_VALUE) % aFiles.length;
+
+				l_out[l_part].write(l_rec);
+				l_rec = aHeld.hasNext() ? aHeld.next() : aSource.next();
+			}
+		} finally {
+			for (CSVWriter l_writer : l_out) {
+				if (l_writer != null) {
+					l_writer.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Streams the left records against a hash table of right records.
+	 */
+	private void probe(Source aLeft, Map<List<String>, List<CSVRecord>> aTable, Sink aSink) throws IOException {
+		CSVRecord l_rec = aLeft.next();
+
+		while (l_rec != null) {
+			emit(l_rec, aTable.get(key(l_rec, leftIndex)), aSink);
+			l_rec = aLeft.next();
+		}
+	}
+
+	/**
+	 * Reads a record of a temporary file with the header of its input.
+	 */
+	private CSVRecord read(CSVReader aReader, CSVHeader aHeader) throws IOException {
+		CSVRecord l_ret = aReader.readRecord();
+
+		return l_ret == null ? null : aHeader.Record(l_ret.fieldList());
+	}
+
+	private int[] resolve(CSVHeader aHeader, List<String> aColumns, String aName) {
+		int[] l_ret = new int[aColumns.size()];
+
+		for (int i = 0; i < l_ret.length; i++) {
+			l_ret[i] = aHeader.indexOf(aColumns.get(i));
+
+			if (l_ret[i] == -1) {
+				throw SYS.LOG.exception(MSG.CSV_COLUMN_NOT_FOUND, aColumns.get(i), aName);
+			}
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Joins the inputs with the hash table or with partitions.
+	 */
+	private void run(CSVReader aLeft, CSVReader aRight, Sink aSink) throws IOException {
+		if (leftKeys.isEmpty()) {
+			throw new IllegalStateException();
+		}
+		init(aLeft, aRight);
+
+		Map<List<String>, List<CSVRecord>> l_table = new HashMap<>();
+		long l_bytes = 0;
+		CSVRecord l_rec = aRight.readRecord();
+
+		while (l_rec != null && l_bytes < budget) {
+			l_table.computeIfAbsent(key(l_rec, rightIndex), k -> new ArrayList<>(1)).add(l_rec);
+			l_bytes += CSVSorter.sizeOf(l_rec) + 64;
+			l_rec = aRight.readRecord();
+		}
+		if (l_rec == null) {
+			probe(aLeft::readRecord, l_table, aSink);
+
+			return;
+		}
+		long l_size = Math.max(new File(aRight.getName()).length() * 3, l_bytes * 2);
+		int l_parts = (int) Math.min(MAX_PARTITIONS, 2 * l_size / budget + 1);
+		File[] l_right = new File[l_parts];
+		File[] l_left = new File[l_parts];
+
+		try {
+			CSVRecord l_first = l_rec;
+			Source l_source = new Source() {
+				private boolean bFirst = true;
+
+				@Override
+				public CSVRecord next() throws IOException {
+					if (bFirst) {
+						bFirst = false;
+
+						return l_first;
+					}
+					return aRight.readRecord();
+				}
+			};
+			// the records held so far are partitioned first, the order of the
+			// right records within a partition does not matter
+			partition(l_table.values().stream().flatMap(List::stream).iterator(), l_source, rightIndex, l_right);
+			l_table.clear();
+			partition(Collections.emptyIterator(), aLeft::readRecord, leftIndex, l_left);
+
+			for (int i = 0; i < l_parts; i++) {
+				joinPartition(l_left[i], l_right[i], aSink);
+				l_left[i].delete();
+				l_right[i].delete();
+			}
+		} finally {
+			for (int i = 0; i < l_parts; i++) {
+				if (l_left[i] != null) {
+					l_left[i].delete();
+				}
+				if (l_right[i] != null) {
+					l_right[i].delete();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sorts a pair of partitions by their keys and merges them. A group of right
+	 * records with equal keys which exceeds the budget is written to a temporary
+	 * file.
+	 */
+	private void sortMerge(File aLeft, File aRight, Sink aSink) throws IOException {
+		File l_left = null;
+		File l_right = null;
+		File l_spill = null;
+
+		try {
+			l_left = sort(aLeft, leftHdr, leftKeys);
+			l_right = sort(aRight, rightHdr, rightKeys);
+
+			try (CSVReader l_lin = open(l_left, leftHdr); CSVReader l_rin = open(l_right, rightHdr)) {
+				CSVRecord l_lrec = read(l_lin, leftHdr);
+				CSVRecord l_rrec = read(l_rin, rightHdr);
+				List<String> l_groupKey = null;
+				List<CSVRecord> l_group = new ArrayList<>();
+
+				while (l_lrec != null) {
+					List<String> l_key = key(l_lrec, leftIndex);
+
+					if (!l_key.equals(l_groupKey)) {
+						while (l_rrec != null && compare(key(l_rrec, rightIndex), l_key) < 0) {
+							l_rrec = read(l_rin, rightHdr);
+						}
+						l_groupKey = l_key;
+						l_group.clear();
+
+						if (l_spill != null) {
+							l_spill.delete();
+							l_spill = null;
+						}
+						long l_bytes = 0;
+
+						while (l_rrec != null && key(l_rrec, rightIndex).equals(l_key)) {
+							l_group.add(l_rrec);
+							l_bytes += CSVSorter.sizeOf(l_rrec) + 64;
+							l_rrec = read(l_rin, rightHdr);
+
+							if (l_bytes >= budget) {
+								l_spill = createTempFile();
+								l_rrec = spill(l_group, l_rrec, l_rin, l_key, l_spill);
+								break;
+							}
+						}
+					}
+					if (l_spill == null) {
+						emit(l_lrec, l_group, aSink);
+					} else {
+						emit(l_lrec, l_spill, aSink);
+					}
+					l_lrec = read(l_lin, leftHdr);
+				}
+			}
+		} finally {
+			if (l_left != null) {
+				l_left.delete();
+			}
+			if (l_right != null) {
+				l_right.delete();
+			}
+			if (l_spill != null) {
+				l_spill.delete();
+			}
+		}
+	}
+
+	/**
+	 * Writes a group of right records with equal keys to a temporary file: the
+	 * records held so far and the remaining records of the group.
+	 * 
+	 * @param aGroup  the records held so far, cleared afterwards
+	 * @param aNext   the next right record
+	 * @param aReader the reader of the right records
+	 * @param aKey    the key of the group
+	 * @param aFile   the temporary file
+	 * @return the first right record after the group
+	 */
+	private CSVRecord spill(List<CSVRecord> aGroup, CSVRecord aNext, CSVReader aReader, List<String> aKey,
+			File aFile) throws IOException {
+		CSVRecord l_ret = aNext;
+
+		try (CSVWriter l_out = new CSVWriter()) {
+			l_out.open(aFile);
+
+			for (CSVRecord l_rec : aGroup) {
+				l_out.write(l_rec);
+			}
+			while (l_ret != null && key(l_ret, rightIndex).equals(aKey)) {
+				l_out.write(l_ret);
+				l_ret = read(aReader, rightHdr);
+			}
+		}
+		aGroup.clear();
+
+		return l_ret;
+	}
+
+	/**
+	 * Sorts a temporary file by the given key columns.
+	 */
+	private File sort(File aFile, CSVHeader aHeader, List<String> aKeys) throws IOException {
+		CSVSorter l_sorter = new CSVSorter();
+		File l_ret = createTempFile();
+
+		l_sorter.setBudget(budget);
+		l_sorter.setTempDirectory(tempDir);
+
+		for (String l_key : aKeys) {
+			l_sorter.addKey(l_key, CSVSorter.Type.STRING);
+		}
+		try (CSVReader l_in = open(aFile, aHeader); CSVWriter l_out = new CSVWriter()) {
+			l_out.open(l_ret);
+			l_sorter.sort(l_in, l_out);
+		} catch (IOException | RuntimeException anEx) {
+			l_ret.delete();
+
+			throw anEx;
+		}
+		return l_ret;
+	}
+}
@@ -0,0 +1,334 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import biz.car.CAR;
+import biz.car.SYS;
+import biz.car.bundle.MSG;
+
+/**
+ * A persistent hash index on a key column of a CSV file.<br>
+ * The index is an open addressing hash table in a sidecar file next to the CSV
+ * file. Each slot holds a 64 bit hash of a key and the file offset of the
+ * record. The table is memory mapped, so the heap usage does not depend on the
+ * size of the file. A lookup probes the table and reads each candidate record
+ * with a positional read from the CSV file into a reusable buffer.
+ * <p>
+ * Keys are compared in display format, i.e. without enclosing quotes. The
+ * index is bound to the size and modification time of the CSV file and to the
+ * field delimiter, and is built again when any of them has changed.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+public class CSVKeyIndex implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 12;
+	private static final int HEADER_SIZE = 64;
+	private static final int MAGIC = 0x4341524B;
+	private static final int SEGMENT_SHIFT = 30;
+	private static final int SLOT_SIZE = 16;
+	private static final int VERSION = 2;
+
+	/**
+	 * Opens the key index of a CSV file. If there is no valid sidecar file the
+	 * index is built from the records of the file.
+	 * 
+	 * @param aFile   the CSV file
+	 * @param aDelim  the CSV field delimiter
+	 * @param aColumn the name of the key column
+	 * @return the key index
+	 * @throws IOException if the file or the index could not be read
+	 */
+	static CSVKeyIndex open(File aFile, String aDelim, String aColumn) throws IOException {
+		CSVKeyIndex l_ret = new CSVKeyIndex(aFile, aDelim);
+
+		try {
+			l_ret.column = l_ret.hdr.indexOf(aColumn.trim());
+
+			if (l_ret.column == -1) {
+				throw SYS.LOG.exception(MSG.CSV_COLUMN_NOT_FOUND, aColumn, aFile.getPath());
+			}
+			File l_file = new File(aFile.getPath() + "." + l_ret.column + CAR._key); //$NON-NLS-1$
+
+			if (!l_ret.load(l_file)) {
+				l_ret.build(l_file);
+
+				if (!l_ret.load(l_file)) {
+					throw new IOException(l_file.getPath());
+				}
+			}
+			return l_ret;
+		} catch (IOException | RuntimeException anEx) {
+			l_ret.close();
+
+			throw anEx;
+		}
+	}
+
+	private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private long capacity;
+	private FileChannel channel;
+	private int column;
+	private String delim;
+	private File file;
+	private CSVHeader hdr;
+	private CSVByteParser parser;
+	private MappedByteBuffer[] segments;
+	private long size;
+
+	/**
+	 * Creates a default <code>CSVKeyIndex</code> instance.<br>
+	 * The header of the CSV file is read.
+	 * 
+	 * @param aFile  the CSV file
+	 * @param aDelim the CSV field delimiter
+	 */
+	private CSVKeyIndex(File aFile, String aDelim) throws IOException {
+		super();
+
+		file = aFile;
+		delim = aDelim;
+		channel = FileChannel.open(aFile.toPath(), StandardOpenOption.READ);
+		size = channel.size();
+		parser = new CSVByteParser(aDelim);
+
+		List<String> l_hdr = size == 0 ? List.of() : read(0, -1);
+		hdr = CSVRecord.Header(l_hdr).Delimiter(aDelim);
+	}
+
+	@Override
+	public void close() throws IOException {
+		segments = null;
+		channel.close();
+	}
+
+	/**
+	 * @return the header of the CSV file
+	 */
+	public CSVHeader header() {
+		return hdr;
+	}
+
+	/**
+	 * Looks up the records with the given key. Lookups are serialized since the
+	 * read buffer is shared.
+	 * 
+	 * @param aKey the key value in display format
+	 * @return the records with the given key in the order of the table, an empty
+	 *         list if there is no such record
+	 * @throws IOException if the CSV file could not be read
+	 */
+	public synchronized List<CSVRecord> lookup(String aKey) throws IOException {
+		List<CSVRecord> l_ret = new ArrayList<>(1);
+		long l_hash = hash(aKey);
+		long l_mask = capacity - 1;
+		int l_size = hdr.columns().size();
+
+		for (long l_slot = l_hash & l_mask;; l_slot = (l_slot + 1) & l_mask) {
+			long l_pos = HEADER_SIZE + l_slot * SLOT_SIZE;
+			MappedByteBuffer l_seg = segments[(int) (l_pos >>> SEGMENT_SHIFT)];
+			int l_off = (int) (l_pos & ((1L << SEGMENT_SHIFT) - 1));
+			long l_value = l_seg.getLong(l_off);
+
+			if (l_value == 0) {
+				return l_ret;
+			}
+			if (l_value == l_hash) {
+				List<String> l_fields = read(l_seg.getLong(l_off + 8), l_size);
+
+				if (CSVField.toDisplayFormat(l_fields.get(column)).equals(aKey)) {
+					l_ret.add(hdr.Record(l_fields));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes a 64 bit hash of a key. The value <code>0</code> marks an empty
+	 * slot and is never returned.
+	 */
+	private static long hash(String aKey) {
+		long l_ret = 0xcbf29ce484222325L;
+		int l_len = aKey.length();
+
+		for (int i = 0; i < l_len; i++) {
+			l_ret ^= aKey.charAt(i);
+			l_ret *= 0x100000001b3L;
+		}
+		l_ret ^= l_ret >>> 33;
+		l_ret *= 0xff51afd7ed558ccdL;
+		l_ret ^= l_ret >>> 33;
+
+		return l_ret == 0 ? 1 : l_ret;
+	}
+
+	/**
+	 * Builds the hash table in a temporary file which then replaces the sidecar
+	 * file. The records are counted by the offset index of the file.
+	 */
+	private void build(File anIndex) throws IOException {
+		long l_records = CSVOffsetIndex.open(file, delim).records();
+		long l_capacity = Long.highestOneBit(Math.max(16, l_records * 2) - 1) << 1;
+		long l_mask = l_capacity - 1;
+		File l_dir = anIndex.getAbsoluteFile().getParentFile();
+		File l_temp = Files.createTempFile(l_dir.toPath(), anIndex.getName(), ".tmp").toFile(); //$NON-NLS-1$
+
+		try (FileChannel l_out = FileChannel.open(l_temp.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer[] l_segs = map(l_out, MapMode.READ_WRITE, HEADER_SIZE + l_capacity * SLOT_SIZE);
+			CSVMappedInput l_input = new CSVMappedInput(channel, 0, size, delim);
+			int[] l_slots = new int[column + 1];
+
+			// only the key column is parsed
+			Arrays.fill(l_slots, -1);
+			l_slots[column] = 0;
+			l_input.project(l_slots);
+
+			// the header is not indexed
+			if (l_input.next()) {
+				while (l_input.next()) {
+					long l_hash = hash(CSVField.toDisplayFormat(l_input.fields(1).get(0)));
+					long l_slot = l_hash & l_mask;
+
+					while (true) {
+						long l_pos = HEADER_SIZE + l_slot * SLOT_SIZE;
+						MappedByteBuffer l_seg = l_segs[(int) (l_pos >>> SEGMENT_SHIFT)];
+						int l_off = (int) (l_pos & ((1L << SEGMENT_SHIFT) - 1));
+
+						if (l_seg.getLong(l_off) == 0) {
+							l_seg.putLong(l_off, l_hash);
+							l_seg.putLong(l_off + 8, l_input.recordStart());
+							break;
+						}
+						l_slot = (l_slot + 1) & l_mask;
+					}
+				}
+			}
+			for (MappedByteBuffer l_seg : l_segs) {
+				l_seg.force();
+			}
+			ByteBuffer l_head = ByteBuffer.allocate(HEADER_SIZE);
+
+			l_head.putInt(MAGIC).putInt(VERSION)
+					.putLong(size)
+					.putLong(file.lastModified())
+					.putInt(column)
+					.putLong(l_capacity)
+					.putLong(hash(delimiter()))
+					.flip();
+			l_out.write(l_head, 0);
+			l_out.force(true);
+		} catch (IOException | RuntimeException anEx) {
+			Files.deleteIfExists(l_temp.toPath());
+
+			throw anEx;
+		}
+		try {
+			Files.move(l_temp.toPath(), anIndex.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException anEx) {
+			Files.deleteIfExists(l_temp.toPath());
+
+			throw anEx;
+		}
+	}
+
+	/**
+	 * @return the effective field delimiter
+	 */
+	private String delimiter() {
+		return delim == null || delim.isEmpty() ? CSV.DELIMITER : delim;
+	}
+
+	/**
+	 * Maps the hash table of a valid sidecar file.
+	 * 
+	 * @return <code>false</code> if there is no valid sidecar file
+	 */
+	private boolean load(File anIndex) throws IOException {
+		if (!anIndex.isFile() || anIndex.length() < HEADER_SIZE) {
+			return false;
+		}
+		try (FileChannel l_in = FileChannel.open(anIndex.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer l_head = ByteBuffer.allocate(HEADER_SIZE);
+
+			l_in.read(l_head, 0);
+			l_head.flip();
+
+			if (l_head.getInt() != MAGIC
+					|| l_head.getInt() != VERSION
+					|| l_head.getLong() != size
+					|| l_head.getLong() != file.lastModified()
+					|| l_head.getInt() != column) {
+				return false;
+			}
+			capacity = l_head.getLong();
+
+			if (l_head.getLong() != hash(delimiter()) || l_in.size() != HEADER_SIZE + capacity * SLOT_SIZE) {
+				return false;
+			}
+			segments = map(l_in, MapMode.READ_ONLY, l_in.size());
+		}
+		return true;
+	}
+
+	/**
+	 * Maps a file in segments of 1 GB. The slots never cross a segment boundary.
+	 */
+	private MappedByteBuffer[] map(FileChannel aChannel, MapMode aMode, long aSize) throws IOException {
+		long l_segSize = 1L << SEGMENT_SHIFT;
+		int l_count = (int) ((aSize + l_segSize - 1) >>> SEGMENT_SHIFT);
+		MappedByteBuffer[] l_ret = new MappedByteBuffer[l_count];
+
+		for (int i = 0; i < l_count; i++) {
+			long l_start = i * l_segSize;
+
+			l_ret[i] = aChannel.map(aMode, l_start, Math.min(l_segSize, aSize - l_start));
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Reads a single record with a positional read. The buffer is enlarged if
+	 * the record does not fit.
+	 * 
+	 * @param anOffset the file offset of the record
+	 * @param aSize    the number of fields of the record, <code>-1</code> for
+	 *                 the fields found in the record
+	 */
+	private List<String> read(long anOffset, int aSize) throws IOException {
+		while (true) {
+			buffer.clear();
+
+			while (buffer.hasRemaining() && channel.read(buffer, anOffset + buffer.position()) > 0) {
+				// fill the buffer
+			}
+			int l_limit = buffer.position();
+			boolean l_last = anOffset + l_limit >= size;
+
+			if (parser.parse(buffer, 0, l_limit, l_last) >= 0) {
+				// the values are decoded before the buffer is reused
+				return new ArrayList<>(aSize < 0 ? parser.fields(buffer) : parser.fields(buffer, aSize));
+			}
+			buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+		}
+	}
+}
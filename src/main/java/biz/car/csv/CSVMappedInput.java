@@ -0,0 +1,286 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Reads the records of a CSV file through a memory mapped window.<br>
+ * The window is moved forward through the file, so files larger than 2 GB can
+ * be read. A record is never split across two windows. The input may be
+ * restricted to a range of records of the file.
+ * <p>
+ * An input which follows a growing file only returns records which are
+ * terminated by a line break. The input can then be extended to the current
+ * size of the file.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CSVMappedInput implements Closeable {
+
+	/**
+	 * The default size of a mapped window.
+	 */
+	static final int WINDOW_SIZE = 1 << 28;
+
+	private long base;
+	private boolean bFollow;
+	private FileChannel channel;
+	private long count;
+	private long end;
+	private CSVFilter filter;
+	private CSVByteParser parser;
+	private int pos;
+	private long recordStart;
+	private MappedByteBuffer window;
+	private int windowSize;
+
+	/**
+	 * Creates a default <code>CSVMappedInput</code> instance.
+	 * 
+	 * @param aFile  the CSV file to read
+	 * @param aDelim the CSV field delimiter
+	 * @throws IOException if the file could not be opened
+	 */
+	CSVMappedInput(File aFile, String aDelim) throws IOException {
+		this(FileChannel.open(aFile.toPath(), StandardOpenOption.READ), aDelim);
+	}
+
+	/**
+	 * Creates a <code>CSVMappedInput</code> instance for the whole content of a
+	 * channel.
+	 * 
+	 * @param aChannel the channel of the CSV file
+	 * @param aDelim   the CSV field delimiter
+	 * @throws IOException if the file could not be mapped
+	 */
+	CSVMappedInput(FileChannel aChannel, String aDelim) throws IOException {
+		this(aChannel, 0, aChannel.size(), aDelim);
+	}
+
+	/**
+	 * Creates a <code>CSVMappedInput</code> instance for a range of records.
+	 * 
+	 * @param aChannel the channel of the CSV file
+	 * @param aStart   the file offset of the first record
+	 * @param anEnd    the file offset after the last record
+	 * @param aDelim   the CSV field delimiter
+	 * @throws IOException if the file could not be mapped
+	 */
+	CSVMappedInput(FileChannel aChannel, long aStart, long anEnd, String aDelim) throws IOException {
+		super();
+
+		channel = aChannel;
+		end = anEnd;
+		parser = new CSVByteParser(aDelim);
+		windowSize = WINDOW_SIZE;
+
+		map(aStart);
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+
+	/**
+	 * Adds the field values of the current record to a batch.
+	 * 
+	 * @param aBatch the batch to fill
+	 */
+	void addTo(CSVBatch aBatch) {
+		parser.addTo(aBatch, window);
+	}
+
+	/**
+	 * @return the number of records read
+	 */
+	long count() {
+		return count;
+	}
+
+	/**
+	 * Extends the input to the current size of the file.
+	 * 
+	 * @return <code>true</code> if the file has grown
+	 * @throws IOException if the file could not be mapped or if it has been
+	 *                     truncated
+	 */
+	boolean extend() throws IOException {
+		long l_size = channel.size();
+
+		if (l_size < end) {
+			throw new IOException(String.valueOf(l_size));
+		}
+		if (l_size == end) {
+			return false;
+		}
+		end = l_size;
+		map(position());
+
+		return true;
+	}
+
+	/**
+	 * @return the field values of the current record
+	 */
+	List<String> fields() {
+		return parser.fields(window);
+	}
+
+	/**
+	 * Assigns the field values of the current record to the given list.
+	 * 
+	 * @param aTarget the reusable field list
+	 */
+	void fields(ByteFields aTarget) {
+		parser.fill(aTarget, window);
+	}
+
+	/**
+	 * @param aSize the number of fields of the list
+	 * @return the field values of the current record adjusted to the given size
+	 */
+	List<String> fields(int aSize) {
+		return parser.fields(window, aSize);
+	}
+
+	/**
+	 * Assigns a filter to this input. Records which do not satisfy the filter
+	 * are skipped.
+	 * 
+	 * @param aFilter the filter or <code>null</code> to read all records
+	 */
+	void filter(CSVFilter aFilter) {
+		filter = aFilter;
+	}
+
+	/**
+	 * Lets this input follow a growing file. A last record without a line break
+	 * is not returned, since it may not be complete yet.
+	 */
+	void follow() {
+		bFollow = true;
+	}
+
+	/**
+	 * Moves to the next record which satisfies the filter of this input.
+	 * 
+	 * @return <code>false</code> if the end of the file has been reached
+	 * @throws IOException if the file could not be mapped
+	 */
+	boolean next() throws IOException {
+		while (advance()) {
+			if (filter == null || parser.test(filter, window)) {
+				count++;
+
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the file offset of the next record
+	 */
+	long position() {
+		return base + pos;
+	}
+
+	/**
+	 * Restricts the field values to a projection.
+	 * 
+	 * @param aSlots the target index for each field or <code>null</code> to keep
+	 *               all fields
+	 * @see CSVParser#project(int[])
+	 */
+	void project(int[] aSlots) {
+		parser.project(aSlots);
+	}
+
+	/**
+	 * @return the file offset of the current record
+	 */
+	long recordStart() {
+		return recordStart;
+	}
+
+	/**
+	 * Resets the internal record counter back to zero.
+	 */
+	void resetCount() {
+		count = 0;
+	}
+
+	/**
+	 * Moves the input to the given file offset, which must be the start of a
+	 * record.
+	 * 
+	 * @param anOffset the file offset of the next record
+	 * @throws IOException if the file could not be mapped
+	 */
+	void seek(long anOffset) throws IOException {
+		map(anOffset);
+	}
+
+	/**
+	 * @return the file offset after the last record
+	 */
+	long size() {
+		return end;
+	}
+
+	/**
+	 * Moves to the next record of the file.
+	 */
+	private boolean advance() throws IOException {
+		while (true) {
+			int l_limit = window.limit();
+			boolean l_last = base + l_limit == end;
+
+			if (pos >= l_limit && l_last) {
+				return false;
+			}
+			int l_end = pos < l_limit ? parser.parse(window, pos, l_limit, l_last && !bFollow) : -1;
+
+			if (l_end >= 0) {
+				recordStart = base + pos;
+				pos = l_end;
+
+				return true;
+			}
+			if (l_last) {
+				// the last record of a growing file is not complete yet
+				return false;
+			}
+			if (pos == 0) {
+				// the record does not fit into a single window
+				if (windowSize == Integer.MAX_VALUE) {
+					throw new IOException(String.valueOf(base));
+				}
+				windowSize = (int) Math.min(Integer.MAX_VALUE, windowSize * 2L);
+			}
+			map(base + pos);
+		}
+	}
+
+	private void map(long anOffset) throws IOException {
+		long l_len = Math.min(windowSize, end - anOffset);
+
+		window = channel.map(MapMode.READ_ONLY, anOffset, l_len);
+		base = anOffset;
+		pos = 0;
+	}
+}
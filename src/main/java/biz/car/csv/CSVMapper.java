@@ -6,20 +6,58 @@
 
 package biz.car.csv;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.UnaryOperator;
 
 import biz.car.util.KeyValuePairs;
 
 /**
  * Converts a source CSV record to a new CSV record with a different header.
+ * <p>
+ * When a source header is seen for the first time the mapping is compiled
+ * into a plan which holds the source index for each target column. Plans are
+ * cached by the column names of the source header, so files with the same
+ * layout share a plan.
  *
  * @version 2.0.0 08.01.2026 08:32:08
  */
 public class CSVMapper implements UnaryOperator<CSVRecord> {
 
+	/**
+	 * The compiled mapping for a source header.
+	 */
+	private static class Plan {
+
+		private String[] defaults;
+		private boolean identity;
+		private int[] index;
+		private CSVHeader source;
+
+		/**
+		 * Creates a default <code>Plan</code> instance.
+		 * 
+		 * @param aSource the source header
+		 * @param anIndex the source index for each target column or <code>-1</code>
+		 */
+		public Plan(CSVHeader aSource, int[] anIndex) {
+			super();
+
+			source = aSource;
+			index = anIndex;
+			defaults = new String[anIndex.length];
+			identity = anIndex.length == aSource.columns().size();
+
+			for (int i = 0; i < anIndex.length; i++) {
+				defaults[i] = ""; //$NON-NLS-1$
+				identity &= anIndex[i] == i;
+			}
+		}
+	}
+
 	/**
 	 * Factory method for a <code>CSVMapper</code>.<br>
 	 * Key-value pairs are loaded from the given file. The keys defines the header
@@ -41,6 +79,8 @@ public class CSVMapper implements UnaryOperator<CSVRecord> {
 
 	private CSVHeader hdr;
 	private KeyValuePairs kv;
+	private volatile Plan last;
+	private Map<List<String>, int[]> plans = new ConcurrentHashMap<>();
 
 	/**
 	 * Creates a default <code>CSVMapper</code> instance.
@@ -51,17 +91,50 @@ public class CSVMapper implements UnaryOperator<CSVRecord> {
 
 	@Override
 	public CSVRecord apply(CSVRecord aRecord) {
-		CSVRecord l_ret = Objects.requireNonNull(aRecord);
-		List<String> l_list = new ArrayList<String>();
+		Plan l_plan = plan(Objects.requireNonNull(aRecord).header());
+
+		if (l_plan.identity) {
+			return hdr.Record(aRecord.values());
+		}
+		int[] l_index = l_plan.index;
+		String[] l_values = new String[l_index.length];
+
+		for (int i = 0; i < l_index.length; i++) {
+			int l_ind = l_index[i];
 
-		for (String l_field : hdr.columns()) {
-			String l_value = kv.valueOf(l_field);
-			l_value = l_ret.optionalValue(l_value).orElse(""); //$NON-NLS-1$
+			l_values[i] = l_ind < 0 ? l_plan.defaults[i] : aRecord.getValue(l_ind);
+		}
+		return hdr.Record(Arrays.asList(l_values));
+	}
+
+	/**
+	 * Compiles the source index for each target column.
+	 */
+	private int[] compile(CSVHeader aSource) {
+		List<String> l_columns = hdr.columns();
+		int[] l_ret = new int[l_columns.size()];
+
+		for (int i = 0; i < l_ret.length; i++) {
+			String l_value = kv.valueOf(l_columns.get(i));
 
-			l_list.add(l_value);
+			l_ret[i] = l_value == null ? -1 : aSource.indexOf(l_value);
 		}
-		l_ret = hdr.Record(l_list);
+		return l_ret;
+	}
+
+	/**
+	 * Looks up the plan for a source header.<br>
+	 * The plan of the last source header is kept, so records of the same file
+	 * do not need a cache lookup.
+	 */
+	private Plan plan(CSVHeader aSource) {
+		Plan l_ret = last;
 
+		if (l_ret == null || l_ret.source != aSource) {
+			int[] l_index = plans.computeIfAbsent(aSource.columns(), k -> compile(aSource));
+			l_ret = new Plan(aSource, l_index);
+			last = l_ret;
+		}
 		return l_ret;
 	}
 }
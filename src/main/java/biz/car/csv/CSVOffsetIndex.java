@@ -0,0 +1,244 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import biz.car.CAR;
+import biz.car.SYS;
+import biz.car.bundle.MSG;
+
+/**
+ * The file offsets of every n-th record of a CSV file.<br>
+ * The index is kept in a sidecar file next to the CSV file. It is built in a
+ * single pass by the byte parser, so quoted fields with line breaks are
+ * handled. Record <code>0</code> is the first record after the header.
+ * <p>
+ * The index is bound to the size and modification time of the CSV file and to
+ * the field delimiter, since the record boundaries depend on the delimiter. If
+ * any of them changes, the index is no longer valid and is built again.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CSVOffsetIndex {
+
+	/**
+	 * The default number of records between two indexed offsets.
+	 */
+	static final int INTERVAL = 1024;
+
+	private static final int MAGIC = 0x43415249;
+	private static final int VERSION = 2;
+
+	/**
+	 * Reads the records of a CSV file and creates a new index. The index is
+	 * written to the sidecar file.
+	 * 
+	 * @param aFile      the CSV file
+	 * @param aDelim     the CSV field delimiter
+	 * @param anInterval the number of records between two indexed offsets
+	 * @return the new index
+	 * @throws IOException if the CSV file could not be read
+	 */
+	static CSVOffsetIndex build(File aFile, String aDelim, int anInterval) throws IOException {
+		CSVOffsetIndex l_ret = new CSVOffsetIndex(aFile, aDelim);
+		l_ret.interval = anInterval;
+		l_ret.modified = aFile.lastModified();
+		long[] l_offsets = new long[1024];
+		int l_count = 0;
+
+		try (CSVMappedInput l_input = new CSVMappedInput(aFile, aDelim)) {
+			l_ret.size = l_input.size();
+
+			// the header is not indexed
+			if (l_input.next()) {
+				while (l_input.next()) {
+					if (l_ret.records % anInterval == 0) {
+						if (l_count == l_offsets.length) {
+							l_offsets = Arrays.copyOf(l_offsets, l_count * 2);
+						}
+						l_offsets[l_count++] = l_input.recordStart();
+					}
+					l_ret.records++;
+				}
+			}
+		}
+		l_ret.offsets = Arrays.copyOf(l_offsets, l_count);
+
+		try {
+			l_ret.write();
+		} catch (IOException anEx) {
+			SYS.LOG.warn(MSG.CSV_INDEX_FAILED, aFile.getPath(), anEx.getMessage());
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Loads the index of a CSV file from its sidecar file. If there is no valid
+	 * sidecar file a new index is built.
+	 * 
+	 * @param aFile  the CSV file
+	 * @param aDelim the CSV field delimiter
+	 * @return the index of the CSV file
+	 * @throws IOException if the CSV file could not be read
+	 */
+	static CSVOffsetIndex open(File aFile, String aDelim) throws IOException {
+		File l_file = sidecar(aFile);
+
+		if (l_file.isFile()) {
+			CSVOffsetIndex l_ret = new CSVOffsetIndex(aFile, aDelim);
+
+			try (DataInputStream l_in = new DataInputStream(
+					new BufferedInputStream(new FileInputStream(l_file), 1 << 16))) {
+				if (l_in.readInt() == MAGIC
+						&& l_in.readInt() == VERSION
+						&& l_in.readUTF().equals(aFile.getAbsolutePath())
+						&& l_in.readUTF().equals(l_ret.delim)) {
+					l_ret.size = l_in.readLong();
+					l_ret.modified = l_in.readLong();
+					l_ret.interval = l_in.readInt();
+					l_ret.records = l_in.readLong();
+					l_ret.offsets = new long[l_in.readInt()];
+
+					for (int i = 0; i < l_ret.offsets.length; i++) {
+						l_ret.offsets[i] = l_in.readLong();
+					}
+					if (l_ret.isValid()) {
+						return l_ret;
+					}
+				}
+			} catch (IOException anEx) {
+				// an unreadable index is built again
+			}
+		}
+		return build(aFile, aDelim, INTERVAL);
+	}
+
+	/**
+	 * @param aFile the CSV file
+	 * @return the sidecar index file of the given CSV file
+	 */
+	static File sidecar(File aFile) {
+		return new File(aFile.getPath() + CAR._idx);
+	}
+
+	private String delim;
+	private File file;
+	private int interval;
+	private long modified;
+	private long[] offsets;
+	private long records;
+	private long size;
+
+	/**
+	 * Creates a default <code>CSVOffsetIndex</code> instance.
+	 * 
+	 * @param aFile  the CSV file
+	 * @param aDelim the CSV field delimiter
+	 */
+	private CSVOffsetIndex(File aFile, String aDelim) {
+		super();
+
+		file = aFile;
+		delim = aDelim == null || aDelim.isEmpty() ? CSV.DELIMITER : aDelim;
+	}
+
+	/**
+	 * @return <code>true</code> if the CSV file has not changed since the index
+	 *         has been built
+	 */
+	boolean isValid() {
+		return file.length() == size && file.lastModified() == modified;
+	}
+
+	/**
+	 * Computes the file offset of a record. The records following the nearest
+	 * indexed record are skipped by the byte parser.
+	 * 
+	 * @param aRecord the number of the record, <code>0</code> is the first record
+	 *                after the header
+	 * @return the file offset of the record or the file size if the file has
+	 *         less records
+	 * @throws IOException if the CSV file could not be read
+	 */
+	long offset(long aRecord) throws IOException {
+		if (aRecord >= records) {
+			return size;
+		}
+		long l_start = offsets[(int) (aRecord / interval)];
+		long l_skip = aRecord % interval;
+
+		if (l_skip == 0) {
+			return l_start;
+		}
+		FileChannel l_channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+		try (CSVMappedInput l_input = new CSVMappedInput(l_channel, l_start, size, delim)) {
+			for (long i = 0; i < l_skip; i++) {
+				l_input.next();
+			}
+			return l_input.position();
+		}
+	}
+
+	/**
+	 * @return the number of records of the CSV file
+	 */
+	long records() {
+		return records;
+	}
+
+	/**
+	 * Writes this index to a temporary file which then replaces the sidecar file.
+	 */
+	private void write() throws IOException {
+		File l_file = sidecar(file);
+		File l_dir = l_file.getAbsoluteFile().getParentFile();
+		File l_temp = Files.createTempFile(l_dir.toPath(), l_file.getName(), ".tmp").toFile(); //$NON-NLS-1$
+
+		try (DataOutputStream l_out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(l_temp), 1 << 16))) {
+			l_out.writeInt(MAGIC);
+			l_out.writeInt(VERSION);
+			l_out.writeUTF(file.getAbsolutePath());
+			l_out.writeUTF(delim);
+			l_out.writeLong(size);
+			l_out.writeLong(modified);
+			l_out.writeInt(interval);
+			l_out.writeLong(records);
+			l_out.writeInt(offsets.length);
+
+			for (long l_offset : offsets) {
+				l_out.writeLong(l_offset);
+			}
+		} catch (IOException anEx) {
+			Files.deleteIfExists(l_temp.toPath());
+
+			throw anEx;
+		}
+		try {
+			Files.move(l_temp.toPath(), l_file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException anEx) {
+			Files.deleteIfExists(l_temp.toPath());
+
+			throw anEx;
+		}
+	}
+}
@@ -6,13 +6,21 @@
 
 package biz.car.csv;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
 
 /**
  * Breaks a CSV text line into fields.
+ * <p>
+ * Each character of a line is scanned exactly once by a quote state machine.
+ * The characters of the current record are collected in a reusable buffer and
+ * the field boundaries are kept as offsets into that buffer. Field values keep
+ * their CSV format, i.e. enclosing quotes and doubled quotes are not removed.
+ * <p>
+ * With a projection only the boundaries of the selected fields are kept. The
+ * other fields are scanned for quotes and delimiters but never stored.
  *
  * @version 2.0.0 08.01.2026 08:32:08
  */
@@ -21,9 +29,25 @@ public class CSVParser {
 	private static final boolean DONE = true;
 	private static final boolean PENDING = false;
 
+	// the states of the quote state machine
+	private static final int FIELD_START = 0;
+	private static final int UNQUOTED = 1;
+	private static final int QUOTED = 2;
+	private static final int QUOTE_SEEN = 3;
+
+	private char[] buf;
+	private int count;
+	private char delim0;
 	private String delim;
+	private int delimLength;
+	private int[] ends;
+	private int fieldStart;
+	private int len;
+	private int mode;
+	private int[] slots;
+	private int[] starts;
 	private boolean state;
-	private List<String> fieldList;
+	private int width;
 
 	/**
 	 * Creates a default <code>CSVParser</code> instance.
@@ -33,8 +57,12 @@ public class CSVParser {
 	public CSVParser(String aDelim) {
 		super();
 
-		delim = aDelim == null ? CSV.DELIMITER : aDelim;
-		fieldList = new ArrayList<>();
+		delim = aDelim == null || aDelim.isEmpty() ? CSV.DELIMITER : aDelim;
+		delim0 = delim.charAt(0);
+		delimLength = delim.length();
+		buf = new char[256];
+		starts = new int[16];
+		ends = new int[16];
 		state = DONE;
 	}
 
@@ -44,14 +72,42 @@ public class CSVParser {
 	public List<String> fields() {
 		List<String> l_ret = null;
 
-		if (fieldList.size() > 0) {
-			l_ret = new ArrayList<>(fieldList);
+		closePending();
+
+		if (count > 0) {
+			int l_count = slots == null ? count : width;
+			l_ret = new ArrayList<>(l_count);
 
-			fieldList.clear();
+			for (int i = 0; i < l_count; i++) {
+				l_ret.add(new String(buf, starts[i], ends[i] - starts[i]));
+			}
+			reset();
 		}
 		return l_ret;
 	}
 
+	/**
+	 * Restricts the parsed field values to a projection.<br>
+	 * The field with index <code>i</code> is stored as field
+	 * <code>aSlots[i]</code>. It is skipped if the slot is <code>-1</code> or if
+	 * <code>i</code> is beyond the slots.
+	 * 
+	 * @param aSlots the target index for each field or <code>null</code> to keep
+	 *               all fields
+	 */
+	public void project(int[] aSlots) {
+		slots = aSlots;
+		width = 0;
+
+		if (aSlots != null) {
+			for (int l_slot : aSlots) {
+				width = Math.max(width, l_slot + 1);
+			}
+			starts = new int[Math.max(width, 1)];
+			ends = new int[Math.max(width, 1)];
+		}
+	}
+
 	/**
 	 * Breaks a CSV text line into fields.
 	 * 
@@ -60,94 +116,262 @@ public class CSVParser {
 	 *         if content is pending in case of a multiline record
 	 */
 	public boolean parse(String aLine) {
-		List<String> l_tokenList = split(aLine);
-		String l_token = null;
+		int l_from = len;
 
-		for (int i = 0; i < l_tokenList.size(); i++) {
-			l_token = l_tokenList.get(i);
+		if (state == PENDING) {
+			// the line break belongs to the quoted field
+			append(CSV.NEWLINE);
+		} else {
+			fieldStart = len;
+		}
+		append(aLine);
+		scan(l_from);
 
-			if (state == DONE) {
-				state = add(l_token);
-			} else {
-				if (i > 0) {
-					state = append(l_token, delim);
-				} else {
-					state = append(l_token, CSV.NEWLINE);
-				}
-			}
+		if (mode == QUOTED) {
+			state = PENDING;
+		} else {
+			endField(len);
+			state = DONE;
 		}
 		return state;
 	}
 
-	private boolean add(String aToken) {
-		fieldList.add(aToken);
-
-		return off2on(aToken);
-	}
+	/**
+	 * Adds the parsed field values to a batch.
+	 * 
+	 * @param aBatch the batch to fill
+	 * @return <code>false</code> if there are no parsed field values
+	 */
+	boolean addTo(CSVBatch aBatch) {
+		closePending();
 
-	private boolean append(String aToken, String aDelimiter) {
-		int l_index = fieldList.size() - 1;
-		String l_token = fieldList.get(l_index);
-		l_token = l_token + aDelimiter + aToken;
-		fieldList.set(l_index, l_token);
+		if (count == 0) {
+			return false;
+		}
+		aBatch.add(buf, starts, ends, slots == null ? count : width);
+		reset();
 
-		return on2off(aToken);
+		return true;
 	}
 
 	/**
-	 * Computes the next state for a given token of a CSV text line..
-	 * <p>
-	 * This method shall be invoked if the current state of the token is not
-	 * pending.
+	 * Creates the field list of the parsed record with a fixed size.<br>
+	 * The characters of the record are copied once, the field values are
+	 * created when they are read. Missing fields are set to the null string,
+	 * additional fields are ignored.
 	 * 
-	 * @param aToken the CSV token to check
-	 * @return <code>true</code> if the token starts with a double quote but does not have an end
-	 *         double quote.
+	 * @param aSize the number of fields of the list
+	 * @return the list of field values or <code>null</code> if there are no
+	 *         parsed field values
 	 */
-	private boolean off2on(String aToken) {
-		boolean l_ret = DONE;
+	List<String> fields(int aSize) {
+		CharFields l_ret = null;
 
-		if (aToken.startsWith(CSV.DQ)) {
-			l_ret = PENDING;
-			if (aToken.length() > 1) {
-				l_ret = on2off(aToken.substring(1));
+		closePending();
+
+		if (count > 0) {
+			l_ret = new CharFields(aSize);
+
+			if (slots == null) {
+				l_ret.refill(Arrays.copyOf(buf, len), starts, ends, count);
+			} else {
+				l_ret.refill(compact(), starts, ends, width);
 			}
+			reset();
 		}
 		return l_ret;
 	}
 
 	/**
-	 * Computes the next state for a given token of a CSV line.
-	 * <p>
-	 * This method shall be invoked if the current state of the token is ON.
+	 * Assigns the parsed field values to a reusable list.<br>
+	 * The list refers to the internal buffer of this parser, so the values are
+	 * only valid until the next line is parsed.
+	 * 
+	 * @param aTarget the reusable field list
+	 * @return <code>false</code> if there are no parsed field values
+	 */
+	boolean fill(CharFields aTarget) {
+		closePending();
+
+		if (count == 0) {
+			return false;
+		}
+		aTarget.refill(buf, starts, ends, slots == null ? count : width);
+		reset();
+
+		return true;
+	}
+
+	/**
+	 * Tests a filter on the parsed field values.<br>
+	 * The field values are dropped if the filter is not satisfied.
 	 * 
-	 * @param aToken the CSV token to check
-	 * @return OFF if the token ends with a double quote.
+	 * @param aFilter the filter to test
+	 * @return <code>false</code> if the field values have been dropped
+	 */
+	boolean test(CSVFilter aFilter) {
+		closePending();
+
+		if (count == 0 || aFilter.test(buf, starts, ends, slots == null ? count : width)) {
+			return true;
+		}
+		reset();
+
+		return false;
+	}
+
+	/**
+	 * Appends the parsed field values to a row cache. The field values are kept,
+	 * so they can still be read afterwards.
+	 * 
+	 * @param aCache the cache to write to
+	 * @return <code>false</code> if there are no parsed field values
+	 * @throws IOException if the cache could not be written
+	 */
+	boolean writeTo(CSVRowCache aCache) throws IOException {
+		closePending();
+
+		if (count == 0) {
+			return false;
+		}
+		aCache.write(buf, starts, ends, slots == null ? count : width);
+
+		return true;
+	}
+
+	private void append(String aText) {
+		int l_len = aText.length();
+
+		if (len + l_len > buf.length) {
+			buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + l_len));
+		}
+		aText.getChars(0, l_len, buf, len);
+		len += l_len;
+	}
+
+	/**
+	 * Terminates a multiline field that is still open at the end of the input.
+	 */
+	private void closePending() {
+		if (state == PENDING) {
+			endField(len);
+			state = DONE;
+		}
+	}
+
+	/**
+	 * Copies the projected fields into a new buffer which only holds their
+	 * characters. The field offsets are adjusted to the new buffer.
 	 */
-	private boolean on2off(String aToken) {
-		boolean l_ret = PENDING;
-		Matcher l_matcher = CSV.DQ2_PATTERN.matcher(aToken);
+	private char[] compact() {
+		int l_len = 0;
 
-		if (l_matcher.find()) {
-			String l_dq = l_matcher.group();
-			int l_rest = l_dq.length() % 2;
+		for (int i = 0; i < width; i++) {
+			l_len += ends[i] - starts[i];
+		}
+		char[] l_buf = new char[l_len];
+		int l_pos = 0;
+
+		for (int i = 0; i < width; i++) {
+			int l_n = ends[i] - starts[i];
 
-			if (l_rest == 1) {
-				l_ret = DONE;
+			System.arraycopy(buf, starts[i], l_buf, l_pos, l_n);
+			starts[i] = l_pos;
+			ends[i] = l_pos + l_n;
+			l_pos += l_n;
+		}
+		return l_buf;
+	}
+
+	private void endField(int anEnd) {
+		int l_slot = count;
+
+		if (slots != null) {
+			l_slot = count < slots.length ? slots[count] : -1;
+		} else if (count == starts.length) {
+			starts = Arrays.copyOf(starts, count * 2);
+			ends = Arrays.copyOf(ends, count * 2);
+		}
+		if (l_slot >= 0) {
+			starts[l_slot] = fieldStart;
+			ends[l_slot] = anEnd;
+		}
+		count++;
+		fieldStart = anEnd + delimLength;
+		mode = FIELD_START;
+	}
+
+	private boolean isDelimiter(int anIndex) {
+		if (buf[anIndex] != delim0) {
+			return false;
+		}
+		if (delimLength == 1) {
+			return true;
+		}
+		if (anIndex + delimLength > len) {
+			return false;
+		}
+		for (int i = 1; i < delimLength; i++) {
+			if (buf[anIndex + i] != delim.charAt(i)) {
+				return false;
 			}
 		}
-		return l_ret;
+		return true;
 	}
 
-	private List<String> split(String aLine) {
-		String[] l_array = aLine.split(delim);
-		List<String> l_ret = new ArrayList<>();
+	private void reset() {
+		count = 0;
+		fieldStart = 0;
+		len = 0;
+		mode = FIELD_START;
 
-		l_ret.addAll(Arrays.asList(l_array));
+		if (slots != null) {
+			// fields missing in the next record are null strings
+			Arrays.fill(starts, 0);
+			Arrays.fill(ends, 0);
+		}
+	}
 
-		if (aLine.endsWith(delim)) {
-			l_ret.add(""); //$NON-NLS-1$
+	/**
+	 * Runs the quote state machine over the buffered characters.
+	 * 
+	 * @param aFrom the index of the first character to scan
+	 */
+	private void scan(int aFrom) {
+		int i = aFrom;
+
+		while (i < len) {
+			char l_char = buf[i];
+
+			switch (mode) {
+			case QUOTED:
+				if (l_char == '"') {
+					mode = QUOTE_SEEN;
+				}
+				i++;
+				break;
+
+			case QUOTE_SEEN:
+				if (l_char == '"') {
+					// a doubled quote inside a quoted field
+					mode = QUOTED;
+					i++;
+					break;
+				}
+				mode = UNQUOTED;
+				// the quoted part has ended, the character is scanned again as
+				// unquoted content
+				break;
+
+			default:
+				if (isDelimiter(i)) {
+					endField(i);
+					i += delimLength;
+				} else {
+					mode = l_char == '"' && mode == FIELD_START ? QUOTED : UNQUOTED;
+					i++;
+				}
+			}
 		}
-		return l_ret;
 	}
 }
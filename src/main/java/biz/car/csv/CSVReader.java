@@ -8,23 +8,74 @@ package biz.car.csv;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import biz.car.SYS;
+import biz.car.bundle.MSG;
 import biz.car.io.XFileReader;
 
 /**
  * A <code>CSVReader</code> reads text input from a CSV file on the file system.
+ * <p>
+ * Field values are created when they are read for the first time, so handlers
+ * which only access a few columns do not pay for the others.
+ * <p>
+ * In mapped mode the file is read through a memory mapped window and the
+ * records are parsed directly in the bytes of the file. Field values are then
+ * decoded when they are read.
+ * <p>
+ * With the row cache switched on, the records of a file are also written to a
+ * binary sidecar file when the file is read to the end. Later readers of the
+ * unchanged file read the records from the sidecar file instead of parsing the
+ * text.
+ * <p>
+ * A record can be accessed directly by its number. The file offsets of every
+ * n-th record are kept in an index sidecar file, which is built when a record
+ * is sought for the first time and built again when the file has changed.
+ * Records can also be looked up by the value of a key column, see
+ * {@link #keyIndex(String)}.
+ * <p>
+ * A gzip compressed file is decompressed while it is read. Such a file is
+ * always read line by line, the mapped mode, the record access by number and
+ * the key index are not available.
+ * <p>
+ * In follow mode the reader follows a file which is still being appended to.
+ * The file is read in mapped mode and only records terminated by a line break
+ * are returned. When no complete record is left, the reader returns
+ * <code>null</code> until it is refreshed after the file has grown, see
+ * {@link CSVFollower}.
  *
  * @version 2.0.0 08.01.2026 08:32:08
  */
 public class CSVReader extends XFileReader {
 
+	private boolean bFollow;
+	private boolean bMapped;
+	private boolean bRowCache;
 	private String delim;
+	private CSVFilter filter;
+	private List<String> filterColumns = new ArrayList<>();
+	private List<Predicate<CharSequence>> filterTests = new ArrayList<>();
 	private CSVHeader hdr;
+	private CSVRowCache myCache;
+	private CSVRowCache myCacheOut;
+	private CSVOffsetIndex myIndex;
+	private CSVMappedInput myInput;
 	private CSVParser myParser;
+	private List<String> projection;
+	private int[] slots;
 
 	/**
 	 * Creates a default <code>CSVReader</code> instance.
@@ -33,6 +84,58 @@ public class CSVReader extends XFileReader {
 		super();
 	}
 
+	/**
+	 * Adds a predicate on the raw value of a column.<br>
+	 * Only records which satisfy all predicates are read. The predicates are
+	 * tested on the parsed field boundaries before a record is created. They see
+	 * the field values in CSV format, i.e. quoted values include the quotes. The
+	 * column is resolved against the header of the file, so it need not be part
+	 * of the projection.<br>
+	 * The predicates of a stream or of a parallel <code>CSVFeeder</code> are
+	 * called by several threads.
+	 * 
+	 * @param aColumn the name of the column
+	 * @param aTest   the predicate on the raw field value
+	 * @throws IllegalStateException if the reader has already been opened.
+	 */
+	public void addFilter(String aColumn, Predicate<CharSequence> aTest) {
+		if (myParser == null) {
+			filterColumns.add(aColumn.trim());
+			filterTests.add(Objects.requireNonNull(aTest));
+
+			return;
+		}
+		throw new IllegalStateException();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (myCache != null) {
+			myCache.close();
+			myCache = null;
+		}
+		if (myCacheOut != null) {
+			myCacheOut.close();
+			myCacheOut = null;
+		}
+		if (myInput != null) {
+			myInput.close();
+			myInput = null;
+		}
+		super.close();
+	}
+
+	@Override
+	public int getRecordCount() {
+		if (myCache != null) {
+			return (int) myCache.count();
+		}
+		if (myInput != null) {
+			return (int) myInput.count();
+		}
+		return super.getRecordCount();
+	}
+
 	/**
 	 * @return the CSV header for this reader
 	 */
@@ -40,24 +143,72 @@ public class CSVReader extends XFileReader {
 		return hdr;
 	}
 
+	/**
+	 * Opens the persistent hash index on a key column of this file.<br>
+	 * The index is built when it does not exist or when the file has changed.
+	 * The records returned by the index have the full header of the file, the
+	 * projection and the filters of this reader are not applied.
+	 * 
+	 * @param aColumn the name of the key column
+	 * @return the key index, which must be closed after use
+	 * @throws IOException           if the index could not be built
+	 * @throws IllegalStateException if the reader has not been opened or if the
+	 *                               file is compressed
+	 */
+	public CSVKeyIndex keyIndex(String aColumn) throws IOException {
+		if (myParser == null || isCompressed()) {
+			throw new IllegalStateException();
+		}
+		return CSVKeyIndex.open(new File(getName()), delim, aColumn);
+	}
+
 	/**
 	 * Opens this file for input using the specified <code>File</code>.
 	 * 
 	 * @param aFile the file to use as the input medium.
-	 * @throws IOFoundException if the given file could not be found on the file
-	 *                          system
+	 * @throws IOFoundException      if the given file could not be found on the
+	 *                               file system
+	 * @throws IllegalStateException if a compressed file is opened in follow
+	 *                               mode
 	 */
 	public void open(File aFile) throws IOException {
 		Objects.requireNonNull(aFile);
-		super.open(aFile);
 
 		if (delim == null) {
 			delim = CSV.DELIMITER;
 		}
+		if (bFollow && isGzip(aFile)) {
+			throw new IllegalStateException();
+		}
+		super.open(aFile);
+
+		if ((bMapped || bFollow) && !isCompressed()) {
+			myInput = new CSVMappedInput(aFile, delim);
+
+			if (bFollow) {
+				myInput.follow();
+			}
+		}
+
 		myParser = new CSVParser(delim);
-		List<String> l_hdr = readFields();
-		hdr = CSVRecord.Header(l_hdr).Delimiter(delim);
-		
+		boolean l_cached = bRowCache && myInput == null && projection == null && filterColumns.isEmpty();
+
+		if (l_cached) {
+			myCache = CSVRowCache.open(aFile, delim);
+		}
+		if (myCache != null) {
+			hdr = CSVRecord.Header(myCache.columns()).Delimiter(delim);
+		} else {
+			List<String> l_hdr = readFields();
+			hdr = CSVRecord.Header(l_hdr).Delimiter(delim);
+
+			if (projection != null || !filterColumns.isEmpty()) {
+				pushDown();
+			}
+			if (l_cached) {
+				createCache(aFile);
+			}
+		}
 		resetRecordCount();
 	}
 
@@ -75,6 +226,49 @@ public class CSVReader extends XFileReader {
 		open(l_file);
 	}
 
+	/**
+	 * Reads the next records from the CSV input file into a columnar batch.<br>
+	 * The declared columns of the batch are resolved against the header of this
+	 * reader when the batch is filled for the first time. The fields are
+	 * converted directly from the parser buffer, no record is created.
+	 * 
+	 * @param aBatch the batch to fill
+	 * @return the number of records in the batch, <code>0</code> if end of file
+	 *         has been reached
+	 * @throws IOException           if an error occurred during the read
+	 *                               operation
+	 * @throws NumberFormatException if a numeric column has an invalid value
+	 */
+	public int readBatch(CSVBatch aBatch) throws IOException {
+		if (!aBatch.isBound(hdr)) {
+			aBatch.bind(hdr, aBatch.columns().stream()
+					.mapToInt(this::indexOf)
+					.toArray());
+		}
+		aBatch.clear();
+
+		while (!aBatch.isFull()) {
+			if (myCache != null) {
+				if (!myCache.addTo(aBatch)) {
+					break;
+				}
+			} else if (myInput != null) {
+				if (!myInput.next()) {
+					break;
+				}
+				myInput.addTo(aBatch);
+			} else {
+				parseLines();
+				writeCache();
+
+				if (!myParser.addTo(aBatch)) {
+					break;
+				}
+			}
+		}
+		return aBatch.size();
+	}
+
 	/**
 	 * Reads the next line from the CSV input file.
 	 * 
@@ -83,7 +277,7 @@ public class CSVReader extends XFileReader {
 	 * @throws IOException if an error occurred during the close operation
 	 */
 	public CSVRecord readRecord() throws IOException {
-		List<String> l_fields = readFields();
+		List<String> l_fields = readFields(hdr.columns().size());
 		CSVRecord l_ret = null;
 
 		if (l_fields != null) {
@@ -92,6 +286,216 @@ public class CSVReader extends XFileReader {
 		return l_ret;
 	}
 
+	/**
+	 * Reads the next record from the CSV input file into a reusable record.
+	 * <p>
+	 * The field values of the given record are replaced, no new record is
+	 * created. In mapped mode the field values are backed by the mapped file
+	 * content. The returned record is only valid until the next read operation,
+	 * so handlers must not keep references to it.
+	 * 
+	 * @param aReuse the record to refill. If <code>null</code> or if the record
+	 *               has a different header a new record is created.
+	 * @return the refilled record or <code>null</code> if end of file has been
+	 *         reached.
+	 * @throws IOException if an error occurred during the read operation
+	 */
+	public CSVRecord readRecord(CSVRecord aReuse) throws IOException {
+		CSVRecord l_ret = aReuse;
+
+		if (l_ret == null || l_ret.header() != hdr) {
+			l_ret = hdr.Record();
+		}
+		if (myCache != null) {
+			List<String> l_fields = l_ret.fieldList();
+
+			if (!(l_fields instanceof ByteFields)) {
+				l_fields = new ByteFields(l_fields.size());
+				l_ret.setFields(l_fields);
+			}
+			return myCache.fill((ByteFields) l_fields) ? l_ret : null;
+		}
+		if (myInput != null) {
+			if (!myInput.next()) {
+				return null;
+			}
+			List<String> l_fields = l_ret.fieldList();
+
+			if (!(l_fields instanceof ByteFields)) {
+				l_fields = new ByteFields(l_fields.size());
+				l_ret.setFields(l_fields);
+			}
+			myInput.fields((ByteFields) l_fields);
+
+			return l_ret;
+		}
+		parseLines();
+		writeCache();
+		List<String> l_fields = l_ret.fieldList();
+
+		if (!(l_fields instanceof CharFields)) {
+			l_fields = new CharFields(l_fields.size());
+			l_ret.setFields(l_fields);
+		}
+		return myParser.fill((CharFields) l_fields) ? l_ret : null;
+	}
+
+	/**
+	 * Extends a reader in follow mode to the current size of the file. The
+	 * records appended since the last refresh can then be read.
+	 * 
+	 * @return <code>true</code> if the file has grown
+	 * @throws IOException           if the file could not be mapped or if it
+	 *                               has been truncated
+	 * @throws IllegalStateException if the reader has not been opened in follow
+	 *                               mode
+	 */
+	public boolean refresh() throws IOException {
+		if (myInput == null || !bFollow) {
+			throw new IllegalStateException();
+		}
+		return myInput.extend();
+	}
+
+	@Override
+	public void resetRecordCount() {
+		if (myCache != null) {
+			myCache.resetCount();
+		}
+		if (myInput != null) {
+			myInput.resetCount();
+		}
+		super.resetRecordCount();
+	}
+
+	/**
+	 * Creates a stream of the remaining records of the CSV input file.
+	 * <p>
+	 * The stream reads the file independently of this reader, it can be used in
+	 * parallel since it is split at record boundaries. In mapped mode the stream
+	 * starts at the current position of this reader. In line mode it starts
+	 * after the header, so no record must have been read. The stream should be
+	 * closed to release the file.
+	 * <p>
+	 * A compressed file can not be split, its stream reads the records through
+	 * this reader.
+	 * 
+	 * @return the stream of CSV records
+	 * @throws IOException           if the file could not be opened
+	 * @throws IllegalStateException if this reader has not been opened or if
+	 *                               records have already been read in line mode
+	 */
+	public Stream<CSVRecord> stream() throws IOException {
+		if (myParser == null || (myInput == null && getRecordCount() != 0)) {
+			throw new IllegalStateException();
+		}
+		if (isCompressed()) {
+			return StreamSupport.stream(new Spliterators.AbstractSpliterator<CSVRecord>(Long.MAX_VALUE,
+					Spliterator.ORDERED | Spliterator.NONNULL) {
+				@Override
+				public boolean tryAdvance(Consumer<? super CSVRecord> anAction) {
+					try {
+						CSVRecord l_rec = readRecord();
+
+						if (l_rec == null) {
+							return false;
+						}
+						anAction.accept(l_rec);
+
+						return true;
+					} catch (IOException anEx) {
+						throw new UncheckedIOException(anEx);
+					}
+				}
+			}, false);
+		}
+		CSVSplitter l_split = splitter();
+
+		try {
+			long l_start = l_split.size();
+
+			if (myInput != null) {
+				l_start = myInput.position();
+			} else {
+				// the header is read without projection and filter
+				CSVMappedInput l_input = new CSVMappedInput(l_split.channel(), delim);
+
+				if (l_input.next()) {
+					l_start = l_input.position();
+				}
+			}
+			CSVSpliterator l_spliter = new CSVSpliterator(l_split, hdr, l_start);
+
+			return StreamSupport.stream(l_spliter, false)
+					.onClose(() -> {
+						try {
+							l_split.close();
+						} catch (IOException anEx) {
+							throw new UncheckedIOException(anEx);
+						}
+					});
+		} catch (IOException | RuntimeException anEx) {
+			l_split.close();
+
+			throw anEx;
+		}
+	}
+
+	/**
+	 * Repositions this reader to the given byte offset, which must be the start
+	 * of a record. A row cache is not used after a seek operation.
+	 * 
+	 * @param anOffset the byte offset in the file
+	 * @throws IOException           if the file could not be repositioned
+	 * @throws IllegalStateException if the reader has not been opened or if the
+	 *                               file is compressed
+	 */
+	@Override
+	public void seek(long anOffset) throws IOException {
+		if (myParser == null || isCompressed()) {
+			throw new IllegalStateException();
+		}
+		if (myCache != null) {
+			myCache.close();
+			myCache = null;
+		}
+		if (myCacheOut != null) {
+			myCacheOut.close();
+			myCacheOut = null;
+		}
+		if (myInput != null) {
+			myInput.seek(anOffset);
+		} else {
+			super.seek(anOffset);
+		}
+	}
+
+	/**
+	 * Moves this reader to a record of the file.<br>
+	 * The next read operation returns the record with the given number, where
+	 * <code>0</code> is the first record after the header. Filters are not taken
+	 * into account when the records are counted. If the file has less records,
+	 * the end of the file is reached. A row cache is not used after a seek
+	 * operation.
+	 * 
+	 * @param aRecord the number of the record
+	 * @throws IOException           if the file could not be read
+	 * @throws IllegalStateException if the reader has not been opened or if the
+	 *                               file is compressed
+	 */
+	public void seekRecord(long aRecord) throws IOException {
+		if (myParser == null || isCompressed()) {
+			throw new IllegalStateException();
+		}
+		if (aRecord < 0) {
+			throw new IllegalArgumentException(String.valueOf(aRecord));
+		}
+		if (myIndex == null || !myIndex.isValid()) {
+			myIndex = CSVOffsetIndex.open(new File(getName()), delim);
+		}
+		seek(myIndex.offset(aRecord));
+	}
+
 	/**
 	 * Assigns a CSV field delimiter.
 	 * 
@@ -107,12 +511,235 @@ public class CSVReader extends XFileReader {
 		throw new IllegalStateException();
 	}
 
-	private List<String> readFields() throws IOException {
-		String l_line = read();
+	/**
+	 * Switches the follow mode on or off.<br>
+	 * In follow mode the file is read in mapped mode and a last record without
+	 * a line break is held back until it is complete. The header of the file
+	 * must be complete when the reader is opened. Compressed files can not be
+	 * followed.
+	 * 
+	 * @param isFollow <code>true</code> to follow a growing file
+	 * @throws IllegalStateException if the reader has already been opened.
+	 */
+	public void setFollow(boolean isFollow) {
+		if (myParser == null) {
+			bFollow = isFollow;
+
+			return;
+		}
+		throw new IllegalStateException();
+	}
+
+	/**
+	 * Switches the mapped mode on or off.<br>
+	 * In mapped mode the file is mapped into memory and the records are parsed
+	 * directly in the bytes of the file.
+	 * 
+	 * @param isMapped <code>true</code> to read the file in mapped mode
+	 * @throws IllegalStateException if the reader has already been opened.
+	 */
+	public void setMapped(boolean isMapped) {
+		if (myParser == null) {
+			bMapped = isMapped;
+
+			return;
+		}
+		throw new IllegalStateException();
+	}
+
+	/**
+	 * Restricts the records of this reader to the given columns.<br>
+	 * The columns are resolved against the header of the file when the file is
+	 * opened. The records then have a header with the projected columns in the
+	 * given order. The other fields are skipped by the parser and never stored.
+	 * 
+	 * @param aColumns the names of the projected columns or <code>null</code> to
+	 *                 read all columns
+	 * @throws IllegalStateException if the reader has already been opened.
+	 */
+	public void setProjection(List<String> aColumns) {
+		if (myParser == null) {
+			projection = aColumns == null ? null : aColumns.stream()
+					.map(f -> f.trim())
+					.distinct()
+					.toList();
+
+			return;
+		}
+		throw new IllegalStateException();
+	}
+
+	/**
+	 * Switches the row cache on or off.<br>
+	 * With the row cache switched on, a valid sidecar cache of the file is read
+	 * instead of the file itself. Otherwise the records are written to a new
+	 * sidecar cache while they are read, the cache is completed when the end of
+	 * the file has been reached. A cache is valid as long as the path, size and
+	 * modification time of the file and the delimiter are unchanged. The row
+	 * cache is not used in mapped mode and if a projection or a filter has been
+	 * defined.
+	 * 
+	 * @param isRowCache <code>true</code> to use the row cache
+	 * @throws IllegalStateException if the reader has already been opened.
+	 */
+	public void setRowCache(boolean isRowCache) {
+		if (myParser == null) {
+			bRowCache = isRowCache;
+
+			return;
+		}
+		throw new IllegalStateException();
+	}
+
+	/**
+	 * @return the file offset of the next record in mapped mode
+	 * @throws IllegalStateException if the reader is not open in mapped mode
+	 */
+	long position() {
+		if (myInput == null) {
+			throw new IllegalStateException();
+		}
+		return myInput.position();
+	}
+
+	/**
+	 * Creates a splitter for the records of the open file.
+	 * 
+	 * @return the splitter with the projection of this reader
+	 * @throws IOException if the file could not be opened
+	 */
+	CSVSplitter splitter() throws IOException {
+		CSVSplitter l_ret = new CSVSplitter(new File(getName()), hdr, delim);
+		l_ret.project(slots);
+		l_ret.filter(filter);
+
+		return l_ret;
+	}
+
+	/**
+	 * Starts writing a new sidecar cache of the file.
+	 */
+	private void createCache(File aFile) {
+		try {
+			myCacheOut = CSVRowCache.create(aFile, delim, hdr.columns());
+		} catch (IOException anEx) {
+			SYS.LOG.warn(MSG.CSV_ROW_CACHE_FAILED, getName(), anEx.getMessage());
+		}
+	}
+
+	/**
+	 * Looks up a column in the file header.
+	 */
+	private int indexOf(String aName) {
+		int l_ret = hdr.indexOf(aName);
+
+		if (l_ret == -1) {
+			throw SYS.LOG.exception(MSG.CSV_COLUMN_NOT_FOUND, aName, getName());
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Reads lines until the parser holds a complete record or end of file has
+	 * been reached.
+	 */
+	private void parseLines() throws IOException {
+		do {
+			String l_line = read();
+
+			while (l_line != null && myParser.parse(l_line) != true) {
+				l_line = read();
+			}
+		} while (filter != null && !myParser.test(filter));
+	}
+
+	/**
+	 * Resolves the projection and the filter columns against the file header and
+	 * passes them to the parsers. The header is replaced by the projected header.
+	 */
+	private void pushDown() {
+		if (projection != null) {
+			slots = new int[hdr.columns().size()];
+			Arrays.fill(slots, -1);
 
-		while (l_line != null && myParser.parse(l_line) != true) {
-			l_line = read();
+			for (int i = 0; i < projection.size(); i++) {
+				slots[indexOf(projection.get(i))] = i;
+			}
 		}
+		if (!filterColumns.isEmpty()) {
+			int[] l_slots = new int[filterColumns.size()];
+			int l_next = projection == null ? 0 : projection.size();
+
+			for (int i = 0; i < l_slots.length; i++) {
+				int l_ind = indexOf(filterColumns.get(i));
+
+				if (slots == null) {
+					l_slots[i] = l_ind;
+				} else {
+					if (slots[l_ind] == -1) {
+						// the column is kept for the filter only
+						slots[l_ind] = l_next++;
+					}
+					l_slots[i] = slots[l_ind];
+				}
+			}
+			filter = new CSVFilter(l_slots, List.copyOf(filterTests));
+		}
+		if (projection != null) {
+			hdr = CSVRecord.Header(projection).Delimiter(delim);
+		}
+		myParser.project(slots);
+
+		if (myInput != null) {
+			myInput.project(slots);
+			myInput.filter(filter == null ? null : filter.copy());
+		}
+	}
+
+	private List<String> readFields() throws IOException {
+		if (myInput != null) {
+			return myInput.next() ? myInput.fields() : null;
+		}
+		parseLines();
+
 		return myParser.fields();
 	}
+
+	private List<String> readFields(int aSize) throws IOException {
+		if (myInput != null) {
+			return myInput.next() ? myInput.fields(aSize) : null;
+		}
+		if (myCache != null) {
+			return myCache.fields(aSize);
+		}
+		parseLines();
+		writeCache();
+
+		return myParser.fields(aSize);
+	}
+
+	/**
+	 * Passes the parsed record to the sidecar cache. The cache is completed at
+	 * the end of the file. If the cache could not be written it is discarded.
+	 */
+	private void writeCache() {
+		if (myCacheOut == null) {
+			return;
+		}
+		try {
+			if (!myParser.writeTo(myCacheOut)) {
+				myCacheOut.commit();
+				myCacheOut = null;
+			}
+		} catch (IOException anEx) {
+			SYS.LOG.warn(MSG.CSV_ROW_CACHE_FAILED, getName(), anEx.getMessage());
+
+			try {
+				myCacheOut.close();
+			} catch (IOException anIgnored) {
+				// the cache is discarded anyway
+			}
+			myCacheOut = null;
+		}
+	}
 }
@@ -6,7 +6,10 @@
 
 package biz.car.csv;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -28,6 +31,7 @@ public class CSVRecord implements DataRecord {
 
 		private List<String> columns;
 		private String delim;
+		private Map<String, Integer> index;
 		private String quote;
 		private Supplier<String> splitter = () -> quote + delim + quote;
 
@@ -45,6 +49,16 @@ public class CSVRecord implements DataRecord {
 					.map(f -> f.trim())
 					.toList();
 			columns = List.copyOf(l_list);
+			index = new HashMap<>(columns.size() * 2);
+
+			for (int i = 0; i < columns.size(); i++) {
+				index.putIfAbsent(columns.get(i), i);
+			}
+		}
+
+		@Override
+		public CSVColumn Column(String aName) {
+			return new CSVColumn(this, aName, indexOf(aName));
 		}
 
 		@Override
@@ -64,6 +78,18 @@ public class CSVRecord implements DataRecord {
 			return this;
 		}
 
+		@Override
+		public String delimiter() {
+			return delim;
+		}
+
+		@Override
+		public int indexOf(String aName) {
+			Integer l_ret = index.get(aName);
+
+			return l_ret == null ? -1 : l_ret;
+		}
+
 		@Override
 		public CSVHeader Quote(String aQuote) {
 			if (aQuote != null) {
@@ -178,6 +204,13 @@ public class CSVRecord implements DataRecord {
 		return hdr.columns;
 	}
 
+	/**
+	 * @return the underlying list of field values
+	 */
+	List<String> fieldList() {
+		return fields;
+	}
+
 	/**
 	 * Looks up a single field value in the current record.
 	 * 
@@ -187,12 +220,30 @@ public class CSVRecord implements DataRecord {
 	 */
 	@Override
 	public String getValue(String aName) {
-		int l_ind = hdr.columns.indexOf(aName);
+		int l_ind = hdr.indexOf(aName);
 		String l_ret = fields.get(l_ind);
 
 		return l_ret;
 	}
 
+	/**
+	 * Looks up a single field value in the current record.
+	 * 
+	 * @param anIndex the index of the field in the header of this file
+	 * @return the value found
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public String getValue(int anIndex) {
+		return fields.get(anIndex);
+	}
+
+	/**
+	 * @return the CSV header of this record
+	 */
+	public CSVHeader header() {
+		return hdr;
+	}
+
 	/**
 	 * Checks if this record has a field with the given name.
 	 * 
@@ -201,7 +252,7 @@ public class CSVRecord implements DataRecord {
 	 */
 	@Override
 	public boolean hasField(String aName) {
-		int l_ind = hdr.columns.indexOf(aName);
+		int l_ind = hdr.indexOf(aName);
 		boolean l_ret = l_ind != -1;
 
 		return l_ret;
@@ -210,7 +261,7 @@ public class CSVRecord implements DataRecord {
 	@Override
 	public Optional<String> optionalValue(String aName) {
 		String l_ret = null;
-		int l_ind = hdr.columns.indexOf(aName);
+		int l_ind = hdr.indexOf(aName);
 
 		if (l_ind != -1) {
 			l_ret = fields.get(l_ind);
@@ -226,12 +277,13 @@ public class CSVRecord implements DataRecord {
 	 * @param aSource the field source
 	 */
 	public void put(FieldSource aSource) {
-		fieldNames().forEach(name -> {
-			String l_value = aSource.optionalValue(name).orElse(""); //$NON-NLS-1$
-			int l_ind = hdr.columns.indexOf(name);
-			
-			fields.set(l_ind, l_value);
-		});
+		List<String> l_names = fieldNames();
+
+		for (int i = 0; i < l_names.size(); i++) {
+			String l_value = aSource.optionalValue(l_names.get(i)).orElse(""); //$NON-NLS-1$
+
+			fields.set(i, l_value);
+		}
 	}
 
 	/**
@@ -249,13 +301,39 @@ public class CSVRecord implements DataRecord {
 		Objects.requireNonNull(aName);
 		Objects.requireNonNull(aValue);
 
-		int l_ind = hdr.columns.indexOf(aName);
+		int l_ind = hdr.indexOf(aName);
 
 		fields.set(l_ind, aValue);
 
 		return this;
 	}
 
+	/**
+	 * Sets a single field value.
+	 * 
+	 * @param anIndex the index of the field in the header of this file
+	 * @param aValue  the value to set
+	 * @return the current CSV record instance with the given field value.
+	 * @throws NullPointerException      if the value is <code>null</code>
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public CSVRecord setValue(int anIndex, String aValue) {
+		Objects.requireNonNull(aValue);
+
+		fields.set(anIndex, aValue);
+
+		return this;
+	}
+
+	/**
+	 * Replaces the underlying list of field values.
+	 * 
+	 * @param aList the list of field values with the size of the header
+	 */
+	void setFields(List<String> aList) {
+		fields = aList;
+	}
+
 	@Override
 	public String toString() {
 		return hdr.quote + String.join(hdr.splitter.get(), fields) + hdr.quote;
@@ -267,4 +345,33 @@ public class CSVRecord implements DataRecord {
 	public List<String> values() {
 		return new ArrayList<>(fields);
 	}
+
+	/**
+	 * Writes this record in the format of {@link #toString()} without creating
+	 * the record line. Values which have not been read yet are written from the
+	 * underlying buffer.
+	 * 
+	 * @param aWriter the writer to write to
+	 * @throws IOException if an error occurred when writing
+	 */
+	void writeTo(Writer aWriter) throws IOException {
+		LazyFields l_lazy = fields instanceof LazyFields l_fields ? l_fields : null;
+		int l_size = fields.size();
+
+		aWriter.write(hdr.quote);
+
+		for (int i = 0; i < l_size; i++) {
+			if (i > 0) {
+				aWriter.write(hdr.quote);
+				aWriter.write(hdr.delim);
+				aWriter.write(hdr.quote);
+			}
+			if (l_lazy != null) {
+				l_lazy.write(i, aWriter);
+			} else {
+				aWriter.write(fields.get(i));
+			}
+		}
+		aWriter.write(hdr.quote);
+	}
 }
@@ -0,0 +1,365 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import biz.car.CAR;
+
+/**
+ * A binary copy of the records of a CSV file.<br>
+ * The cache is kept in a sidecar file next to the CSV file. It starts with the
+ * path, size and modification time of the CSV file, the field delimiter and
+ * the header columns. A record is stored as its length in bytes followed by
+ * the fields, each as a length and the UTF-8 bytes of the raw field value.
+ * <p>
+ * A cache is written to a temporary file and renamed when all records have
+ * been written, so an existing sidecar file is always complete. It is only
+ * used if path, size, modification time and delimiter match the CSV file.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CSVRowCache implements Closeable {
+
+	private static final int END = -1;
+	private static final int MAGIC = 0x43415252;
+	private static final int VERSION = 1;
+
+	/**
+	 * Creates a new sidecar cache for a CSV file.
+	 * 
+	 * @param aFile    the CSV file
+	 * @param aDelim   the CSV field delimiter
+	 * @param aColumns the header columns
+	 * @return the cache to write the records to
+	 * @throws IOException if the cache could not be created
+	 */
+	static CSVRowCache create(File aFile, String aDelim, List<String> aColumns) throws IOException {
+		File l_file = sidecar(aFile);
+		CSVRowCache l_ret = new CSVRowCache(l_file);
+		File l_dir = l_file.getAbsoluteFile().getParentFile();
+		l_ret.temp = Files.createTempFile(l_dir.toPath(), l_file.getName(), ".tmp").toFile(); //$NON-NLS-1$
+		l_ret.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(l_ret.temp), 1 << 16));
+
+		l_ret.out.writeInt(MAGIC);
+		l_ret.out.writeInt(VERSION);
+		l_ret.out.writeUTF(aFile.getAbsolutePath());
+		l_ret.out.writeLong(aFile.length());
+		l_ret.out.writeLong(aFile.lastModified());
+		l_ret.out.writeUTF(aDelim);
+		l_ret.out.writeInt(aColumns.size());
+
+		for (String l_column : aColumns) {
+			l_ret.out.writeUTF(l_column);
+		}
+		l_ret.columns = aColumns;
+
+		return l_ret;
+	}
+
+	/**
+	 * Opens the sidecar cache of a CSV file for reading.
+	 * 
+	 * @param aFile  the CSV file
+	 * @param aDelim the CSV field delimiter
+	 * @return the cache or <code>null</code> if there is no valid cache
+	 */
+	static CSVRowCache open(File aFile, String aDelim) {
+		File l_file = sidecar(aFile);
+
+		if (!l_file.isFile()) {
+			return null;
+		}
+		CSVRowCache l_ret = new CSVRowCache(l_file);
+
+		try {
+			l_ret.in = new DataInputStream(new BufferedInputStream(new FileInputStream(l_file), 1 << 16));
+
+			if (l_ret.in.readInt() == MAGIC
+					&& l_ret.in.readInt() == VERSION
+					&& l_ret.in.readUTF().equals(aFile.getAbsolutePath())
+					&& l_ret.in.readLong() == aFile.length()
+					&& l_ret.in.readLong() == aFile.lastModified()
+					&& l_ret.in.readUTF().equals(aDelim)) {
+				int l_count = l_ret.in.readInt();
+				l_ret.columns = new ArrayList<>(l_count);
+
+				for (int i = 0; i < l_count; i++) {
+					l_ret.columns.add(l_ret.in.readUTF());
+				}
+				return l_ret;
+			}
+		} catch (IOException anEx) {
+			// an unreadable cache is not used
+		}
+		l_ret.closeQuietly();
+
+		return null;
+	}
+
+	/**
+	 * @param aFile the CSV file
+	 * @return the sidecar cache file of the given CSV file
+	 */
+	static File sidecar(File aFile) {
+		return new File(aFile.getPath() + CAR._rows);
+	}
+
+	private byte[] body;
+	private List<String> columns;
+	private long count;
+	private int[] ends;
+	private File file;
+	private DataInputStream in;
+	private DataOutputStream out;
+	private int[] starts;
+	private File temp;
+
+	/**
+	 * Creates a default <code>CSVRowCache</code> instance.
+	 * 
+	 * @param aFile the sidecar cache file
+	 */
+	private CSVRowCache(File aFile) {
+		super();
+
+		file = aFile;
+		body = new byte[256];
+		starts = new int[16];
+		ends = new int[16];
+	}
+
+	/**
+	 * Closes the cache. A cache which has not been committed is discarded.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (in != null) {
+			in.close();
+			in = null;
+		}
+		if (out != null) {
+			out.close();
+			out = null;
+
+			Files.deleteIfExists(temp.toPath());
+		}
+	}
+
+	/**
+	 * Adds the next record to a batch.
+	 * 
+	 * @param aBatch the batch to fill
+	 * @return <code>false</code> if all records have been read
+	 * @throws IOException if the cache could not be read
+	 */
+	boolean addTo(CSVBatch aBatch) throws IOException {
+		int l_count = next();
+
+		if (l_count < 0) {
+			return false;
+		}
+		aBatch.add(ByteBuffer.wrap(body), starts, ends, l_count);
+
+		return true;
+	}
+
+	/**
+	 * @return the header columns
+	 */
+	List<String> columns() {
+		return columns;
+	}
+
+	/**
+	 * Finishes a new cache and makes it visible as the sidecar file. If this
+	 * fails, the temporary file is deleted by {@link #close()}.
+	 * 
+	 * @throws IOException if the cache could not be written
+	 */
+	void commit() throws IOException {
+		out.writeInt(END);
+		out.close();
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+
+		out = null;
+	}
+
+	/**
+	 * @return the number of records read from the cache
+	 */
+	long count() {
+		return count;
+	}
+
+	/**
+	 * Reads the next record.
+	 * 
+	 * @param aSize the number of fields of the list
+	 * @return the field values or <code>null</code> if all records have been read
+	 * @throws IOException if the cache could not be read
+	 */
+	List<String> fields(int aSize) throws IOException {
+		int l_count = next();
+
+		if (l_count < 0) {
+			return null;
+		}
+		// the values are decoded from a private copy of the record bytes
+		byte[] l_body = Arrays.copyOf(body, l_count == 0 ? 0 : ends[l_count - 1]);
+		ByteFields l_ret = new ByteFields(aSize);
+		l_ret.refill(ByteBuffer.wrap(l_body), starts, ends, l_count);
+
+		return l_ret;
+	}
+
+	/**
+	 * Assigns the field values of the next record to a reusable list. The list
+	 * refers to the internal buffer of this cache, so the values are only valid
+	 * until the next record is read.
+	 * 
+	 * @param aTarget the reusable field list
+	 * @return <code>false</code> if all records have been read
+	 * @throws IOException if the cache could not be read
+	 */
+	boolean fill(ByteFields aTarget) throws IOException {
+		int l_count = next();
+
+		if (l_count < 0) {
+			return false;
+		}
+		aTarget.refill(ByteBuffer.wrap(body), starts, ends, l_count);
+
+		return true;
+	}
+
+	/**
+	 * Resets the internal record counter back to zero.
+	 */
+	void resetCount() {
+		count = 0;
+	}
+
+	/**
+	 * Appends a record to a new cache.
+	 * 
+	 * @param aBuffer the characters of the record
+	 * @param aStarts the start offsets of the fields
+	 * @param anEnds  the end offsets of the fields
+	 * @param aCount  the number of fields
+	 * @throws IOException if the cache could not be written
+	 */
+	void write(char[] aBuffer, int[] aStarts, int[] anEnds, int aCount) throws IOException {
+		byte[][] l_bytes = new byte[aCount][];
+		int l_len = 0;
+
+		for (int i = 0; i < aCount; i++) {
+			String l_value = new String(aBuffer, aStarts[i], anEnds[i] - aStarts[i]);
+			l_bytes[i] = l_value.getBytes(StandardCharsets.UTF_8);
+			l_len += varSize(l_bytes[i].length) + l_bytes[i].length;
+		}
+		out.writeInt(l_len);
+
+		for (byte[] l_field : l_bytes) {
+			writeVar(l_field.length);
+			out.write(l_field);
+		}
+	}
+
+	private void closeQuietly() {
+		try {
+			close();
+		} catch (IOException anEx) {
+			// nothing to do
+		}
+	}
+
+	/**
+	 * Reads the bytes of the next record and computes the field offsets.
+	 * 
+	 * @return the number of fields or <code>-1</code> at the end of the cache
+	 */
+	private int next() throws IOException {
+		int l_len = in.readInt();
+
+		if (l_len == END) {
+			return -1;
+		}
+		if (l_len > body.length) {
+			body = new byte[Math.max(l_len, body.length * 2)];
+		}
+		in.readFully(body, 0, l_len);
+
+		int l_pos = 0;
+		int l_ret = 0;
+
+		while (l_pos < l_len) {
+			int l_size = 0;
+			int l_shift = 0;
+			byte l_byte;
+
+			do {
+				if (l_pos == l_len) {
+					throw new EOFException(file.getPath());
+				}
+				l_byte = body[l_pos++];
+				l_size |= (l_byte & 0x7F) << l_shift;
+				l_shift += 7;
+			} while (l_byte < 0);
+
+			if (l_ret == starts.length) {
+				starts = Arrays.copyOf(starts, l_ret * 2);
+				ends = Arrays.copyOf(ends, l_ret * 2);
+			}
+			starts[l_ret] = l_pos;
+			ends[l_ret] = l_pos + l_size;
+			l_pos += l_size;
+			l_ret++;
+		}
+		count++;
+
+		return l_ret;
+	}
+
+	private int varSize(int aValue) {
+		int l_ret = 1;
+		int l_value = aValue >>> 7;
+
+		while (l_value != 0) {
+			l_ret++;
+			l_value >>>= 7;
+		}
+		return l_ret;
+	}
+
+	private void writeVar(int aValue) throws IOException {
+		int l_value = aValue;
+
+		while ((l_value & ~0x7F) != 0) {
+			out.write((l_value & 0x7F) | 0x80);
+			l_value >>>= 7;
+		}
+		out.write(l_value);
+	}
+}
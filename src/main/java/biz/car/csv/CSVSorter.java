@@ -0,0 +1,442 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import biz.car.CAR;
+import biz.car.SYS;
+import biz.car.bundle.MSG;
+
+/**
+ * Sorts the records of a CSV file by one or more key columns with bounded
+ * memory.
+ * <p>
+ * The input records are collected in runs up to half of the memory budget.
+ * Each run is sorted by a parallel merge sort and written to a temporary CSV
+ * file while the next run is read. The sorted runs are then merged into the
+ * output. If the input fits into a single run, no temporary file is written.
+ * <p>
+ * The ordering is stable: records with equal keys keep the order of the input.
+ * Numeric keys may use a comma as decimal separator, date keys have the
+ * default date format {@link CAR#DF_DATE}. Empty or invalid keys are sorted
+ * before all other values.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+public class CSVSorter {
+
+	/**
+	 * The types of a sort key.
+	 */
+	public enum Type {
+		DATE, NUMBER, STRING
+	}
+
+	/**
+	 * The default memory budget in bytes.
+	 */
+	public static final long BUDGET = 1L << 26;
+
+	// the maximum number of runs merged at once
+	private static final int FAN_IN = 64;
+
+	/**
+	 * A record with its parsed sort keys.
+	 */
+	private static class Entry {
+
+		Comparable<Object>[] keys;
+		CSVRecord record;
+		int run;
+
+		/**
+		 * Creates a default <code>Entry</code> instance.
+		 */
+		Entry(CSVRecord aRecord, Comparable<Object>[] aKeys, int aRun) {
+			super();
+
+			record = aRecord;
+			keys = aKeys;
+			run = aRun;
+		}
+	}
+
+	/**
+	 * An open sorted run in a merge.
+	 */
+	private static class Run {
+
+		Entry current;
+		CSVReader rdr;
+		int run;
+	}
+
+	private long budget = BUDGET;
+	private List<String> columns = new ArrayList<>();
+	private DateTimeFormatter dateFormat;
+	private List<Boolean> descending = new ArrayList<>();
+	private CSVHeader hdr;
+	private int[] index;
+	private File tempDir;
+	private List<Type> types = new ArrayList<>();
+
+	/**
+	 * Creates a default <code>CSVSorter</code> instance.
+	 */
+	public CSVSorter() {
+		super();
+	}
+
+	/**
+	 * Adds an ascending sort key.
+	 * 
+	 * @param aColumn the name of the key column
+	 * @param aType   the type of the key values
+	 */
+	public void addKey(String aColumn, Type aType) {
+		addKey(aColumn, aType, false);
+	}
+
+	/**
+	 * Adds a sort key. The records are sorted by the keys in the order in which
+	 * they have been added.
+	 * 
+	 * @param aColumn      the name of the key column
+	 * @param aType        the type of the key values
+	 * @param isDescending <code>true</code> to sort in descending order
+	 */
+	public void addKey(String aColumn, Type aType, boolean isDescending) {
+		columns.add(aColumn.trim());
+		types.add(aType);
+		descending.add(isDescending);
+	}
+
+	/**
+	 * Assigns the memory budget for the records held in memory. The size of a
+	 * record is estimated from the length of its field values.
+	 * 
+	 * @param aBytes the memory budget in bytes
+	 */
+	public void setBudget(long aBytes) {
+		if (aBytes <= 0) {
+			throw new IllegalArgumentException(String.valueOf(aBytes));
+		}
+		budget = aBytes;
+	}
+
+	/**
+	 * Assigns the directory for the temporary files.
+	 * 
+	 * @param aDir the directory or <code>null</code> for the default temporary
+	 *             directory
+	 */
+	public void setTempDirectory(File aDir) {
+		tempDir = aDir;
+	}
+
+	/**
+	 * Sorts the remaining records of an open reader and writes them to an open
+	 * writer. The key columns are resolved against the header of the reader.
+	 * 
+	 * @param anInput  the reader of the unsorted records
+	 * @param anOutput the writer of the sorted records
+	 * @throws IOException if an error occurred when reading or writing
+	 */
+	public void sort(CSVReader anInput, CSVWriter anOutput) throws IOException {
+		hdr = anInput.header();
+		index = new int[columns.size()];
+		dateFormat = DateTimeFormatter.ofPattern(CAR.DF_DATE);
+
+		for (int i = 0; i < index.length; i++) {
+			index[i] = hdr.indexOf(columns.get(i));
+
+			if (index[i] == -1) {
+				throw SYS.LOG.exception(MSG.CSV_COLUMN_NOT_FOUND, columns.get(i), anInput.getName());
+			}
+		}
+		Comparator<Entry> l_cmp = comparator();
+		List<File> l_runs = new ArrayList<>();
+		CompletableFuture<Void> l_spill = CompletableFuture.completedFuture(null);
+
+		try {
+			Entry[] l_sorted = null;
+			CSVRecord l_rec = anInput.readRecord();
+
+			while (l_rec != null) {
+				List<Entry> l_run = new ArrayList<>();
+				long l_bytes = 0;
+
+				// a run holds at least one record, so a tiny budget still makes progress
+				while (l_rec != null && (l_run.isEmpty() || l_bytes < budget / 2)) {
+					l_run.add(new Entry(l_rec, keys(l_rec), 0));
+					l_bytes += sizeOf(l_rec);
+					l_rec = anInput.readRecord();
+				}
+				l_sorted = l_run.toArray(new Entry[l_run.size()]);
+				Arrays.parallelSort(l_sorted, l_cmp);
+
+				if (l_rec == null && l_runs.isEmpty()) {
+					break;
+				}
+				// the previous run must be written before the next one is held
+				join(l_spill);
+
+				File l_file = createTempFile();
+				Entry[] l_entries = l_sorted;
+
+				l_runs.add(l_file);
+				l_spill = CompletableFuture.runAsync(() -> {
+					try {
+						writeRun(l_entries, l_file);
+					} catch (IOException anEx) {
+						throw new CompletionException(anEx);
+					}
+				});
+				l_sorted = null;
+			}
+			join(l_spill);
+
+			if (l_runs.isEmpty()) {
+				if (l_sorted == null || l_sorted.length == 0) {
+					anOutput.writeHeader(hdr.columns());
+				} else {
+					for (Entry l_entry : l_sorted) {
+						anOutput.write(l_entry.record);
+					}
+				}
+				return;
+			}
+			while (l_runs.size() > FAN_IN) {
+				List<File> l_part = l_runs.subList(0, FAN_IN);
+				File l_file = createTempFile();
+
+				try (CSVWriter l_out = new CSVWriter()) {
+					l_out.open(l_file);
+					merge(new ArrayList<>(l_part), l_out, l_cmp);
+				} catch (IOException | RuntimeException anEx) {
+					l_file.delete();
+
+					throw anEx;
+				}
+				for (File l_run : l_part) {
+					l_run.delete();
+				}
+				// the merged run replaces the earliest runs to keep the order stable
+				l_part.clear();
+				l_runs.add(0, l_file);
+			}
+			merge(l_runs, anOutput, l_cmp);
+		} finally {
+			try {
+				join(l_spill);
+			} catch (IOException anEx) {
+				// the first error has already been reported
+			}
+			for (File l_run : l_runs) {
+				l_run.delete();
+			}
+		}
+	}
+
+	/**
+	 * Sorts a CSV file into another CSV file.
+	 * 
+	 * @param anInput  the unsorted CSV file
+	 * @param anOutput the sorted CSV file
+	 * @throws IOException if an error occurred when reading or writing
+	 */
+	public void sort(File anInput, File anOutput) throws IOException {
+		try (CSVReader l_in = new CSVReader(); CSVWriter l_out = new CSVWriter()) {
+			l_in.open(anInput);
+			l_out.open(anOutput);
+			sort(l_in, l_out);
+		}
+	}
+
+	/**
+	 * Estimates the memory used by a record.
+	 * 
+	 * @param aRecord the record
+	 * @return the estimated size in bytes
+	 */
+	static long sizeOf(CSVRecord aRecord) {
+		List<String> l_fields = aRecord.fieldList();
+		int l_size = l_fields.size();
+		long l_ret = 96 + 8L * l_size;
+
+		if (l_fields instanceof LazyFields) {
+			LazyFields l_lazy = (LazyFields) l_fields;
+
+			for (int i = 0; i < l_size; i++) {
+				l_ret += 2L * l_lazy.length(i);
+			}
+		} else {
+			for (int i = 0; i < l_size; i++) {
+				l_ret += 40 + 2L * l_fields.get(i).length();
+			}
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Compares the keys of two entries. Ties are broken by the number of the
+	 * run, so the sort is stable across runs.
+	 */
+	private Comparator<Entry> comparator() {
+		boolean[] l_desc = new boolean[descending.size()];
+
+		for (int i = 0; i < l_desc.length; i++) {
+			l_desc[i] = descending.get(i);
+		}
+		return (e1, e2) -> {
+			for (int i = 0; i < l_desc.length; i++) {
+				Comparable<Object> l_k1 = e1.keys[i];
+				Comparable<Object> l_k2 = e2.keys[i];
+				int l_ret;
+
+				if (l_k1 == null || l_k2 == null) {
+					l_ret = l_k1 == null ? (l_k2 == null ? 0 : -1) : 1;
+				} else {
+					l_ret = l_k1.compareTo(l_k2);
+				}
+				if (l_ret != 0) {
+					return l_desc[i] ? -l_ret : l_ret;
+				}
+			}
+			return Integer.compare(e1.run, e2.run);
+		};
+	}
+
+	private File createTempFile() throws IOException {
+		return File.createTempFile(getClass().getSimpleName(), CAR._csv, tempDir);
+	}
+
+	/**
+	 * Waits for a spill operation and reports its error.
+	 */
+	private void join(CompletableFuture<Void> aSpill) throws IOException {
+		try {
+			aSpill.join();
+		} catch (CompletionException anEx) {
+			if (anEx.getCause() instanceof IOException) {
+				throw (IOException) anEx.getCause();
+			}
+			throw anEx;
+		}
+	}
+
+	/**
+	 * Parses the sort keys of a record.
+	 */
+	@SuppressWarnings("unchecked")
+	private Comparable<Object>[] keys(CSVRecord aRecord) {
+		Comparable<?>[] l_ret = new Comparable<?>[index.length];
+
+		for (int i = 0; i < index.length; i++) {
+			String l_value = CSVField.toDisplayFormat(aRecord.getValue(index[i])).trim();
+
+			if (l_value.isEmpty()) {
+				continue;
+			}
+			try {
+				switch (types.get(i)) {
+				case DATE:
+					l_ret[i] = LocalDate.parse(l_value, dateFormat).toEpochDay();
+					break;
+				case NUMBER:
+					l_ret[i] = Double.valueOf(l_value.replace(',', '.'));
+					break;
+				default:
+					l_ret[i] = l_value;
+				}
+			} catch (DateTimeParseException | NumberFormatException anEx) {
+				// an invalid key is sorted like an empty one
+			}
+		}
+		return (Comparable<Object>[]) l_ret;
+	}
+
+	/**
+	 * Merges sorted runs into a writer.
+	 */
+	private void merge(List<File> aRuns, CSVWriter anOutput, Comparator<Entry> aComparator) throws IOException {
+		PriorityQueue<Run> l_queue = new PriorityQueue<>(aRuns.size(),
+				(r1, r2) -> aComparator.compare(r1.current, r2.current));
+		List<Run> l_open = new ArrayList<>(aRuns.size());
+
+		try {
+			for (int i = 0; i < aRuns.size(); i++) {
+				Run l_run = new Run();
+				l_run.rdr = new CSVReader();
+				l_run.run = i;
+				l_open.add(l_run);
+
+				l_run.rdr.setDelimiter(hdr.delimiter());
+				l_run.rdr.open(aRuns.get(i));
+
+				if (next(l_run)) {
+					l_queue.add(l_run);
+				}
+			}
+			while (!l_queue.isEmpty()) {
+				Run l_run = l_queue.poll();
+
+				anOutput.write(l_run.current.record);
+
+				if (next(l_run)) {
+					l_queue.add(l_run);
+				}
+			}
+		} finally {
+			for (Run l_run : l_open) {
+				l_run.rdr.close();
+			}
+		}
+	}
+
+	/**
+	 * Reads the next record of a run.
+	 */
+	private boolean next(Run aRun) throws IOException {
+		CSVRecord l_rec = aRun.rdr.readRecord();
+
+		if (l_rec == null) {
+			aRun.current = null;
+
+			return false;
+		}
+		l_rec = hdr.Record(l_rec.fieldList());
+		aRun.current = new Entry(l_rec, keys(l_rec), aRun.run);
+
+		return true;
+	}
+
+	/**
+	 * Writes a sorted run to a temporary file.
+	 */
+	private void writeRun(Entry[] anEntries, File aFile) throws IOException {
+		try (CSVWriter l_out = new CSVWriter()) {
+			l_out.open(aFile);
+
+			for (Entry l_entry : anEntries) {
+				l_out.write(l_entry.record);
+			}
+		}
+	}
+}
@@ -0,0 +1,179 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * A <code>Spliterator</code> over the records of a range of a CSV file.
+ * <p>
+ * The record boundaries of the range are computed by a {@link CSVSplitter}
+ * when the spliterator is split for the first time, so a sequential stream
+ * does not pay for them. The size of the ranges depends on the size of the
+ * range and the parallelism of the common pool, so small files are split as
+ * well. Splits are always done at record boundaries, the
+ * prefix of the range is returned to keep the encounter order.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CSVSpliterator implements Spliterator<CSVRecord> {
+
+	private static final long MIN_CHUNK_SIZE = 1 << 16;
+	private static final int SAMPLE_SIZE = 1 << 16;
+	private static final int SPLITS_PER_THREAD = 4;
+
+	private double avgSize;
+	private long[] bounds;
+	private CSVHeader hdr;
+	private int high;
+	private CSVMappedInput input;
+	private int low;
+	private CSVSplitter splitter;
+	private long start;
+
+	/**
+	 * Creates a default <code>CSVSpliterator</code> instance.<br>
+	 * The average record size is estimated from the records at the start of the
+	 * range.
+	 * 
+	 * @param aSplitter the splitter of the CSV file
+	 * @param aHeader   the header of the CSV file
+	 * @param aStart    the file offset of the first record
+	 * @throws IOException if the file could not be mapped
+	 */
+	CSVSpliterator(CSVSplitter aSplitter, CSVHeader aHeader, long aStart) throws IOException {
+		super();
+
+		splitter = aSplitter;
+		hdr = aHeader;
+		start = aStart;
+		avgSize = sample();
+	}
+
+	/**
+	 * Creates a <code>CSVSpliterator</code> for a part of known boundaries.
+	 */
+	private CSVSpliterator(CSVSpliterator aParent, int aLow, int aHigh) {
+		super();
+
+		splitter = aParent.splitter;
+		hdr = aParent.hdr;
+		avgSize = aParent.avgSize;
+		bounds = aParent.bounds;
+		start = bounds[aLow];
+		low = aLow;
+		high = aHigh;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+
+	@Override
+	public long estimateSize() {
+		long l_bytes = end() - position();
+
+		if (l_bytes <= 0) {
+			return 0;
+		}
+		return Math.max(1, (long) (l_bytes / avgSize));
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super CSVRecord> anAction) {
+		int l_size = hdr.columns().size();
+
+		try {
+			if (input == null) {
+				input = splitter.input(start, end());
+			}
+			while (input.next()) {
+				anAction.accept(hdr.Record(input.fields(l_size)));
+			}
+		} catch (IOException anEx) {
+			throw new UncheckedIOException(anEx);
+		}
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super CSVRecord> anAction) {
+		try {
+			if (input == null) {
+				input = splitter.input(start, end());
+			}
+			if (input.next()) {
+				anAction.accept(hdr.Record(input.fields(hdr.columns().size())));
+
+				return true;
+			}
+			return false;
+		} catch (IOException anEx) {
+			throw new UncheckedIOException(anEx);
+		}
+	}
+
+	@Override
+	public Spliterator<CSVRecord> trySplit() {
+		if (input != null) {
+			// the traversal has already started
+			return null;
+		}
+		if (bounds == null) {
+			bounds = splitter.split(start, splitter.size(), chunkSize(), ForkJoinPool.commonPool());
+			low = 0;
+			high = bounds.length - 1;
+		}
+		if (high - low < 2) {
+			return null;
+		}
+		int l_mid = (low + high) >>> 1;
+		CSVSpliterator l_ret = new CSVSpliterator(this, low, l_mid);
+
+		low = l_mid;
+		start = bounds[low];
+
+		return l_ret;
+	}
+
+	/**
+	 * Computes the size of the ranges so that each thread of the common pool
+	 * gets several ranges, even for small files.
+	 */
+	private long chunkSize() {
+		long l_ret = (splitter.size() - start) / (ForkJoinPool.getCommonPoolParallelism() * SPLITS_PER_THREAD);
+
+		return Math.max(MIN_CHUNK_SIZE, Math.min(CSVSplitter.CHUNK_SIZE, l_ret));
+	}
+
+	private long end() {
+		return bounds == null ? splitter.size() : bounds[high];
+	}
+
+	private long position() {
+		return input == null ? start : input.position();
+	}
+
+	/**
+	 * Computes the average size of the records at the start of the range.
+	 */
+	private double sample() throws IOException {
+		long l_end = Math.min(start + SAMPLE_SIZE, splitter.size());
+		CSVMappedInput l_input = splitter.input(start, l_end);
+
+		while (l_input.next()) {
+			// just count the records
+		}
+		long l_count = l_input.count();
+
+		return l_count == 0 ? 1 : Math.max(1, (double) (l_end - start) / l_count);
+	}
+}
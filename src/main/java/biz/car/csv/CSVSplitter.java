@@ -0,0 +1,298 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Splits the records of a CSV file into byte ranges which can be parsed
+ * independently.
+ * <p>
+ * The file is first cut into ranges of equal size. The quote state machine of
+ * the parser is run over each range in parallel, once for each state the range
+ * may start in. Chaining the results gives the exact state at every cut
+ * without parsing the preceding content. Each cut is then moved forward to the
+ * next line break which ends a record in that state.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CSVSplitter implements Closeable {
+
+	/**
+	 * The default size of a byte range.
+	 */
+	static final long CHUNK_SIZE = 1 << 25;
+
+	private static final byte DQ = '"';
+	private static final byte LF = '\n';
+	private static final int SCAN_SIZE = 1 << 20;
+
+	// the states of the quote state machine, see CSVByteParser
+	private static final int FIELD_START = 0;
+	private static final int UNQUOTED = 1;
+	private static final int QUOTED = 2;
+	private static final int QUOTE_SEEN = 3;
+	private static final int STATES = 4;
+
+	private FileChannel channel;
+	private String delim;
+	private byte[] delimiter;
+	private CSVFilter filter;
+	private CSVHeader hdr;
+	private long size;
+	private int[] slots;
+
+	/**
+	 * Creates a default <code>CSVSplitter</code> instance.
+	 * 
+	 * @param aFile   the CSV file to split
+	 * @param aHeader the header of the CSV file
+	 * @param aDelim  the CSV field delimiter
+	 * @throws IOException if the file could not be opened
+	 */
+	CSVSplitter(File aFile, CSVHeader aHeader, String aDelim) throws IOException {
+		super();
+
+		channel = FileChannel.open(aFile.toPath(), StandardOpenOption.READ);
+		size = channel.size();
+		hdr = aHeader;
+		delim = aDelim;
+		delimiter = (aDelim == null || aDelim.isEmpty() ? CSV.DELIMITER : aDelim).getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * @return the channel of the CSV file
+	 */
+	FileChannel channel() {
+		return channel;
+	}
+
+	/**
+	 * Assigns a filter to this splitter. Records which do not satisfy the filter
+	 * are skipped when a range is parsed or read.
+	 * 
+	 * @param aFilter the filter or <code>null</code> to keep all records
+	 */
+	void filter(CSVFilter aFilter) {
+		filter = aFilter;
+	}
+
+	/**
+	 * Creates an input for a range of records of the file.
+	 * 
+	 * @param aStart the file offset of the first record
+	 * @param anEnd  the file offset after the last record
+	 * @return the mapped input with the projection of this splitter
+	 * @throws IOException if the range could not be mapped
+	 */
+	CSVMappedInput input(long aStart, long anEnd) throws IOException {
+		CSVMappedInput l_ret = new CSVMappedInput(channel, aStart, anEnd, delim);
+		l_ret.project(slots);
+
+		if (filter != null) {
+			l_ret.filter(filter.copy());
+		}
+
+		return l_ret;
+	}
+
+	/**
+	 * Parses all records of a byte range.
+	 * 
+	 * @param aStart the file offset of the first record
+	 * @param anEnd  the file offset after the last record
+	 * @return the list of records
+	 * @throws UncheckedIOException if the range could not be mapped
+	 */
+	List<CSVRecord> parse(long aStart, long anEnd) {
+		List<CSVRecord> l_ret = new ArrayList<>();
+		MappedByteBuffer l_buf = map(aStart, anEnd - aStart);
+		CSVByteParser l_parser = new CSVByteParser(delim);
+		CSVFilter l_filter = filter == null ? null : filter.copy();
+		l_parser.project(slots);
+		int l_size = hdr.columns().size();
+		int l_limit = l_buf.limit();
+		int l_pos = 0;
+
+		while (l_pos < l_limit) {
+			l_pos = l_parser.parse(l_buf, l_pos, l_limit, true);
+
+			if (l_filter == null || l_parser.test(l_filter, l_buf)) {
+				l_ret.add(hdr.Record(l_parser.fields(l_buf, l_size)));
+			}
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Restricts the field values of the parsed records to a projection.
+	 * 
+	 * @param aSlots the target index for each field or <code>null</code> to keep
+	 *               all fields
+	 * @see CSVParser#project(int[])
+	 */
+	void project(int[] aSlots) {
+		slots = aSlots;
+	}
+
+	/**
+	 * @return the size of the file in bytes
+	 */
+	long size() {
+		return size;
+	}
+
+	/**
+	 * Computes the record boundaries for ranges of about the given size.
+	 * 
+	 * @param aStart     the file offset of the first record
+	 * @param anEnd      the file offset after the last record
+	 * @param aChunkSize the requested size of a range
+	 * @param aPool      the pool to run the parallel scans
+	 * @return the ascending range boundaries starting with <code>aStart</code>
+	 *         and ending with <code>anEnd</code>
+	 * @throws UncheckedIOException if the file could not be mapped
+	 */
+	long[] split(long aStart, long anEnd, long aChunkSize, ForkJoinPool aPool) {
+		int l_count = (int) Math.max(1, (anEnd - aStart + aChunkSize - 1) / aChunkSize);
+		long[] l_cuts = new long[l_count + 1];
+
+		for (int i = 0; i < l_count; i++) {
+			l_cuts[i] = aStart + i * aChunkSize;
+		}
+		l_cuts[l_count] = anEnd;
+
+		// the state at the end of each range for each state at its start
+		long[][] l_scans = aPool.submit(() -> IntStream.range(0, l_count * STATES)
+				.parallel()
+				.mapToObj(i -> scan(l_cuts[i / STATES], l_cuts[i / STATES + 1], anEnd, i % STATES, false))
+				.toArray(long[][]::new))
+				.join();
+		long[] l_from = new long[l_count];
+		int[] l_modes = new int[l_count];
+
+		l_from[0] = aStart;
+		l_modes[0] = FIELD_START;
+
+		for (int i = 1; i < l_count; i++) {
+			long[] l_scan = l_scans[(i - 1) * STATES + l_modes[i - 1]];
+
+			if (l_from[i - 1] != l_cuts[i - 1]) {
+				// the previous range started after a delimiter across its cut
+				l_scan = scan(l_from[i - 1], l_cuts[i], anEnd, l_modes[i - 1], false);
+			}
+			l_from[i] = Math.max(l_cuts[i], l_scan[0]);
+			l_modes[i] = (int) l_scan[1];
+		}
+		long[] l_bounds = aPool.submit(() -> IntStream.rangeClosed(0, l_count)
+				.parallel()
+				.mapToLong(i -> {
+					if (i == 0 || i == l_count) {
+						return l_cuts[i];
+					}
+					return scan(l_from[i], anEnd, anEnd, l_modes[i], true)[0];
+				})
+				.toArray())
+				.join();
+
+		return Arrays.stream(l_bounds)
+				.distinct()
+				.sorted()
+				.toArray();
+	}
+
+	private boolean isDelimiter(MappedByteBuffer aBuffer, int anIndex, int aLimit) {
+		if (anIndex + delimiter.length > aLimit) {
+			return false;
+		}
+		for (int i = 0; i < delimiter.length; i++) {
+			if (aBuffer.get(anIndex + i) != delimiter[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private MappedByteBuffer map(long aPos, long aSize) {
+		try {
+			return channel.map(MapMode.READ_ONLY, aPos, aSize);
+		} catch (IOException anEx) {
+			throw new UncheckedIOException(anEx);
+		}
+	}
+
+	/**
+	 * Runs the quote state machine of the parser over a byte range. A quote only
+	 * opens a quoted field at the start of a field, a quote inside an unquoted
+	 * field is a literal character.
+	 * 
+	 * @param aStart the file offset to start at
+	 * @param anEnd  the file offset to stop at
+	 * @param aLimit the file offset after the last record
+	 * @param aMode  the state at the start offset
+	 * @param isLine <code>true</code> to stop after the first line break which
+	 *               ends a record
+	 * @return the offset where the scan stopped and the state there. The offset
+	 *         is after the end offset if the range ends within a delimiter.
+	 */
+	private long[] scan(long aStart, long anEnd, long aLimit, int aMode, boolean isLine) {
+		int l_mode = aMode;
+		long l_pos = aStart;
+
+		while (l_pos < anEnd) {
+			int l_size = (int) Math.min(SCAN_SIZE, anEnd - l_pos);
+			MappedByteBuffer l_buf = map(l_pos, Math.min(l_size + delimiter.length - 1, aLimit - l_pos));
+			int l_limit = l_buf.limit();
+			int i = 0;
+
+			while (i < l_size) {
+				byte l_byte = l_buf.get(i);
+
+				if (l_mode == QUOTED) {
+					l_mode = l_byte == DQ ? QUOTE_SEEN : QUOTED;
+					i++;
+				} else if (l_mode == QUOTE_SEEN && l_byte == DQ) {
+					l_mode = QUOTED;
+					i++;
+				} else if (l_byte == LF) {
+					l_mode = FIELD_START;
+					i++;
+
+					if (isLine) {
+						return new long[] { l_pos + i, l_mode };
+					}
+				} else if (isDelimiter(l_buf, i, l_limit)) {
+					l_mode = FIELD_START;
+					i += delimiter.length;
+				} else {
+					l_mode = l_byte == DQ && l_mode == FIELD_START ? QUOTED : UNQUOTED;
+					i++;
+				}
+			}
+			l_pos += i;
+		}
+		return new long[] { l_pos, l_mode };
+	}
+}
@@ -0,0 +1,437 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The values of a single column of a <code>CSVBatch</code>.<br>
+ * Depending on the column type the values are held in a <code>long[]</code>,
+ * <code>int[]</code> or <code>double[]</code> array. String values are
+ * dictionary coded: the vector holds an <code>int</code> code per row and
+ * each distinct value is kept once in the dictionary. The dictionary is
+ * cleared for each batch, so its size is bounded by the batch capacity and the
+ * codes are only valid within a batch.
+ * <p>
+ * Empty fields are null values, they are marked in a null bitmap. Numeric
+ * values may be enclosed by quotes and may use a comma as decimal separator,
+ * a quoted empty numeric value is a null value as well. String values keep
+ * their CSV format.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+public class CSVVector {
+
+	/**
+	 * The types of a column vector.
+	 */
+	public enum Type {
+		DOUBLE, INT, LONG, STRING
+	}
+
+	// the powers of 10 which are exact doubles
+	private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+			1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private int[] codes;
+	private String[] dict;
+	private int dictSize;
+	private double[] doubles;
+	private int[] ints;
+	private long[] longs;
+	private String name;
+	private long[] nulls;
+	private int[] table;
+	private Type type;
+
+	/**
+	 * Creates a default <code>CSVVector</code> instance.
+	 * 
+	 * @param aName     the column name
+	 * @param aType     the column type
+	 * @param aCapacity the maximum number of rows
+	 */
+	CSVVector(String aName, Type aType, int aCapacity) {
+		super();
+
+		name = aName;
+		type = aType;
+		nulls = new long[(aCapacity + 63) >>> 6];
+
+		switch (aType) {
+		case DOUBLE:
+			doubles = new double[aCapacity];
+			break;
+		case INT:
+			ints = new int[aCapacity];
+			break;
+		case LONG:
+			longs = new long[aCapacity];
+			break;
+		default:
+			codes = new int[aCapacity];
+			dict = new String[16];
+			table = new int[32];
+		}
+	}
+
+	/**
+	 * @return the dictionary codes of a string column, <code>-1</code> for null
+	 *         values
+	 */
+	public int[] codes() {
+		return codes;
+	}
+
+	/**
+	 * @return the distinct values of a string column in the order of their codes
+	 */
+	public List<String> dictionary() {
+		return dict == null ? List.of() : Arrays.asList(dict).subList(0, dictSize);
+	}
+
+	/**
+	 * @return the values of a double column
+	 */
+	public double[] doubles() {
+		return doubles;
+	}
+
+	/**
+	 * @param aRow the row index
+	 * @return the value of a double column
+	 */
+	public double getDouble(int aRow) {
+		return doubles[aRow];
+	}
+
+	/**
+	 * @param aRow the row index
+	 * @return the value of an int column
+	 */
+	public int getInt(int aRow) {
+		return ints[aRow];
+	}
+
+	/**
+	 * @param aRow the row index
+	 * @return the value of a long column
+	 */
+	public long getLong(int aRow) {
+		return longs[aRow];
+	}
+
+	/**
+	 * @param aRow the row index
+	 * @return the value of a string column or <code>null</code>
+	 */
+	public String getString(int aRow) {
+		int l_code = codes[aRow];
+
+		return l_code < 0 ? null : dict[l_code];
+	}
+
+	/**
+	 * @return the values of an int column
+	 */
+	public int[] ints() {
+		return ints;
+	}
+
+	/**
+	 * @param aRow the row index
+	 * @return <code>true</code> if the field of the given row is empty
+	 */
+	public boolean isNull(int aRow) {
+		return (nulls[aRow >>> 6] & 1L << aRow) != 0;
+	}
+
+	/**
+	 * @return the values of a long column
+	 */
+	public long[] longs() {
+		return longs;
+	}
+
+	/**
+	 * @return the column name
+	 */
+	public String name() {
+		return name;
+	}
+
+	/**
+	 * @return the null bitmap, bit <code>i % 64</code> of word
+	 *         <code>i / 64</code> is set if row <code>i</code> is null
+	 */
+	public long[] nulls() {
+		return nulls;
+	}
+
+	@Override
+	public String toString() {
+		return name + ":" + type; //$NON-NLS-1$
+	}
+
+	/**
+	 * @return the column type
+	 */
+	public Type type() {
+		return type;
+	}
+
+	/**
+	 * Clears the null bitmap and the dictionary for a new batch.
+	 */
+	void clear() {
+		Arrays.fill(nulls, 0);
+
+		if (dict != null) {
+			Arrays.fill(dict, 0, dictSize, null);
+			Arrays.fill(table, 0);
+			dictSize = 0;
+		}
+	}
+
+	/**
+	 * Assigns a raw field value to a row.
+	 * 
+	 * @param aRow   the row index
+	 * @param aValue the raw field value
+	 * @throws NumberFormatException if a numeric value is not valid
+	 */
+	void set(int aRow, CharSequence aValue) {
+		if (isEmpty(aValue)) {
+			nulls[aRow >>> 6] |= 1L << aRow;
+
+			switch (type) {
+			case DOUBLE:
+				doubles[aRow] = 0;
+				break;
+			case INT:
+				ints[aRow] = 0;
+				break;
+			case LONG:
+				longs[aRow] = 0;
+				break;
+			default:
+				codes[aRow] = -1;
+			}
+			return;
+		}
+		switch (type) {
+		case DOUBLE:
+			doubles[aRow] = parseDouble(aValue);
+			break;
+		case INT:
+			long l_value = parseLong(aValue);
+
+			if (l_value != (int) l_value) {
+				throw new NumberFormatException(aValue.toString());
+			}
+			ints[aRow] = (int) l_value;
+			break;
+		case LONG:
+			longs[aRow] = parseLong(aValue);
+			break;
+		default:
+			codes[aRow] = encode(aValue);
+		}
+	}
+
+	/**
+	 * Looks up the dictionary code of a value. The value is added to the
+	 * dictionary if it is not yet contained.
+	 */
+	private int encode(CharSequence aValue) {
+		int l_hash = hash(aValue);
+		int l_mask = table.length - 1;
+		int l_ind = l_hash & l_mask;
+
+		while (table[l_ind] != 0) {
+			int l_code = table[l_ind] - 1;
+
+			if (equal(dict[l_code], aValue)) {
+				return l_code;
+			}
+			l_ind = (l_ind + 1) & l_mask;
+		}
+		if (dictSize == dict.length) {
+			dict = Arrays.copyOf(dict, dictSize * 2);
+		}
+		int l_ret = dictSize++;
+		dict[l_ret] = aValue.toString();
+		table[l_ind] = l_ret + 1;
+
+		if (dictSize * 2 > table.length) {
+			rehash();
+		}
+		return l_ret;
+	}
+
+	private boolean equal(String aText, CharSequence aValue) {
+		int l_len = aText.length();
+
+		if (l_len != aValue.length()) {
+			return false;
+		}
+		for (int i = 0; i < l_len; i++) {
+			if (aText.charAt(i) != aValue.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Skips leading blanks and an opening quote.
+	 */
+	private int first(CharSequence aValue) {
+		int l_ret = 0;
+		int l_len = aValue.length();
+
+		while (l_ret < l_len && aValue.charAt(l_ret) == ' ') {
+			l_ret++;
+		}
+		if (l_ret < l_len && aValue.charAt(l_ret) == '"') {
+			l_ret++;
+		}
+		return l_ret;
+	}
+
+	/**
+	 * @return <code>true</code> if the value is empty, for a numeric column also
+	 *         if it is empty apart from blanks and quotes
+	 */
+	private boolean isEmpty(CharSequence aValue) {
+		if (aValue.length() == 0) {
+			return true;
+		}
+		if (type == Type.STRING) {
+			return false;
+		}
+		int l_from = first(aValue);
+
+		return last(aValue, l_from) == l_from;
+	}
+
+	private int hash(CharSequence aValue) {
+		int l_ret = 0;
+		int l_len = aValue.length();
+
+		for (int i = 0; i < l_len; i++) {
+			l_ret = 31 * l_ret + aValue.charAt(i);
+		}
+		return l_ret ^ l_ret >>> 16;
+	}
+
+	/**
+	 * Skips trailing blanks and a closing quote.
+	 */
+	private int last(CharSequence aValue, int aFrom) {
+		int l_ret = aValue.length();
+
+		while (l_ret > aFrom && aValue.charAt(l_ret - 1) == ' ') {
+			l_ret--;
+		}
+		if (l_ret > aFrom && aValue.charAt(l_ret - 1) == '"') {
+			l_ret--;
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Parses a decimal number without creating a string. Numbers which cannot
+	 * be converted exactly by the fast path are passed to
+	 * <code>Double.parseDouble</code>.
+	 */
+	private double parseDouble(CharSequence aValue) {
+		int l_from = first(aValue);
+		int l_to = last(aValue, l_from);
+		boolean l_neg = false;
+		long l_mant = 0;
+		int l_digits = 0;
+		int l_scale = 0;
+		boolean l_point = false;
+		boolean l_any = false;
+		int i = l_from;
+
+		if (i < l_to && (aValue.charAt(i) == '-' || aValue.charAt(i) == '+')) {
+			l_neg = aValue.charAt(i) == '-';
+			i++;
+		}
+		for (; i < l_to; i++) {
+			char l_char = aValue.charAt(i);
+
+			if (l_char >= '0' && l_char <= '9') {
+				l_any = true;
+
+				if (l_mant != 0 || l_char != '0') {
+					l_digits++;
+				}
+				l_mant = l_mant * 10 + (l_char - '0');
+
+				if (l_point) {
+					l_scale++;
+				}
+			} else if ((l_char == '.' || l_char == ',') && !l_point) {
+				l_point = true;
+			} else {
+				break;
+			}
+		}
+		if (i == l_to && l_any && l_digits <= 15 && l_scale < POW10.length) {
+			double l_ret = l_mant / POW10[l_scale];
+
+			return l_neg ? -l_ret : l_ret;
+		}
+		String l_text = aValue.subSequence(l_from, l_to).toString().replace(',', '.');
+
+		return Double.parseDouble(l_text);
+	}
+
+	private long parseLong(CharSequence aValue) {
+		int l_from = first(aValue);
+		int l_to = last(aValue, l_from);
+		boolean l_neg = false;
+		long l_ret = 0;
+		int i = l_from;
+
+		if (i < l_to && (aValue.charAt(i) == '-' || aValue.charAt(i) == '+')) {
+			l_neg = aValue.charAt(i) == '-';
+			i++;
+		}
+		if (i == l_to || l_to - i > 18) {
+			// empty or possibly out of range
+			return Long.parseLong(aValue.subSequence(l_from, l_to).toString());
+		}
+		for (; i < l_to; i++) {
+			char l_char = aValue.charAt(i);
+
+			if (l_char < '0' || l_char > '9') {
+				throw new NumberFormatException(aValue.toString());
+			}
+			l_ret = l_ret * 10 + (l_char - '0');
+		}
+		return l_neg ? -l_ret : l_ret;
+	}
+
+	private void rehash() {
+		table = new int[table.length * 2];
+		int l_mask = table.length - 1;
+
+		for (int l_code = 0; l_code < dictSize; l_code++) {
+			int l_ind = hash(dict[l_code]) & l_mask;
+
+			while (table[l_ind] != 0) {
+				l_ind = (l_ind + 1) & l_mask;
+			}
+			table[l_ind] = l_code + 1;
+		}
+	}
+}
@@ -8,6 +8,7 @@ package biz.car.csv;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 
 import biz.car.io.XFileWriter;
@@ -65,9 +66,11 @@ public class CSVWriter extends XFileWriter {
 	}
 
 	/**
-	 * Writes the specified record string to the file.
+	 * Writes the specified record to the file.<br>
+	 * The field values are written directly to the output buffer, the record line
+	 * is not created as a string.
 	 * 
-	 * @param aRecord the text string to be written as a CSV record.
+	 * @param aRecord the CSV record to be written.
 	 * @throws IOException if an error occurred when writing to the file
 	 */
 	public void write(CSVRecord aRecord) throws IOException {
@@ -79,9 +82,35 @@ public class CSVWriter extends XFileWriter {
 				resetRecordCount();
 			}
 		}
-		String l_line = aRecord.toString();
+		aRecord.writeTo(out());
+		endRecord();
+	}
 
-		write(l_line);
+	/**
+	 * Writes a record given by field values in display format.<br>
+	 * Each value is converted to CSV format while it is written, see
+	 * {@link CSVField#toCSVFormat(String)}. The values are separated by the
+	 * delimiter of the header.
+	 * 
+	 * @param aValues the field values in the order of the header columns
+	 * @throws IOException           if an error occurred when writing to the file
+	 * @throws IllegalStateException if no header has been written yet
+	 */
+	public void writeValues(List<String> aValues) throws IOException {
+		if (hdr == null) {
+			throw new IllegalStateException();
+		}
+		Writer l_out = out();
+		String l_delim = hdr.delimiter();
+		int l_size = aValues.size();
+
+		for (int i = 0; i < l_size; i++) {
+			if (i > 0) {
+				l_out.write(l_delim);
+			}
+			CSVField.toCSVFormat(aValues.get(i), l_delim, l_out);
+		}
+		endRecord();
 	}
 
 	/**
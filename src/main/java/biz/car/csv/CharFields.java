@@ -0,0 +1,54 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * CSV field values backed by the characters of a record buffer.<br>
+ * A value is created when the field is read for the first time.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CharFields extends LazyFields {
+
+	private char[] buf;
+
+	/**
+	 * Creates a reusable <code>CharFields</code> instance.
+	 * 
+	 * @param aSize the number of fields
+	 */
+	CharFields(int aSize) {
+		super(new int[aSize], new int[aSize]);
+	}
+
+	@Override
+	protected String decode(int aStart, int anEnd) {
+		return new String(buf, aStart, anEnd - aStart);
+	}
+
+	@Override
+	protected void write(int aStart, int anEnd, Writer aWriter) throws IOException {
+		aWriter.write(buf, aStart, anEnd - aStart);
+	}
+
+	/**
+	 * Assigns the fields of a new record to this list.
+	 * 
+	 * @param aBuffer the buffer holding the record characters
+	 * @param aStarts the start offsets of the fields
+	 * @param anEnds  the end offsets (exclusive) of the fields
+	 * @param aCount  the number of fields of the record
+	 */
+	void refill(char[] aBuffer, int[] aStarts, int[] anEnds, int aCount) {
+		buf = aBuffer;
+
+		assign(aStarts, anEnds, aCount);
+	}
+}
@@ -0,0 +1,152 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A list of CSV field values which are given by offsets into a buffer.<br>
+ * A field value is created when it is read for the first time. Replaced values
+ * are kept separately and hide the buffer content.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+abstract class LazyFields extends AbstractList<String> implements RandomAccess {
+
+	protected int[] ends;
+	protected int[] starts;
+
+	private String[] values;
+
+	/**
+	 * Creates a default <code>LazyFields</code> instance.
+	 * 
+	 * @param aStarts the start offsets of the fields
+	 * @param anEnds  the end offsets (exclusive) of the fields
+	 */
+	protected LazyFields(int[] aStarts, int[] anEnds) {
+		super();
+
+		starts = aStarts;
+		ends = anEnds;
+	}
+
+	/**
+	 * Assigns new field offsets to this list.<br>
+	 * Missing fields are set to the null string, additional fields are ignored.
+	 * 
+	 * @param aStarts the start offsets of the fields
+	 * @param anEnds  the end offsets (exclusive) of the fields
+	 * @param aCount  the number of valid offsets
+	 */
+	protected void assign(int[] aStarts, int[] anEnds, int aCount) {
+		int l_count = Math.min(aCount, starts.length);
+
+		System.arraycopy(aStarts, 0, starts, 0, l_count);
+		System.arraycopy(anEnds, 0, ends, 0, l_count);
+		Arrays.fill(starts, l_count, starts.length, 0);
+		Arrays.fill(ends, l_count, ends.length, 0);
+		invalidate();
+	}
+
+	@Override
+	public String get(int anIndex) {
+		Objects.checkIndex(anIndex, starts.length);
+
+		if (values == null) {
+			values = new String[starts.length];
+		}
+		String l_ret = values[anIndex];
+
+		if (l_ret == null) {
+			l_ret = decode(starts[anIndex], ends[anIndex]);
+			values[anIndex] = l_ret;
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Drops all created and replaced values.<br>
+	 * Called when the offsets are reassigned for a new record.
+	 */
+	protected void invalidate() {
+		if (values != null) {
+			Arrays.fill(values, null);
+		}
+	}
+
+	/**
+	 * Returns the length of a field value without creating it.
+	 * 
+	 * @param anIndex the index of the field
+	 * @return the number of characters or bytes of the field
+	 */
+	int length(int anIndex) {
+		Objects.checkIndex(anIndex, starts.length);
+
+		if (values != null && values[anIndex] != null) {
+			return values[anIndex].length();
+		}
+		return ends[anIndex] - starts[anIndex];
+	}
+
+	@Override
+	public String set(int anIndex, String aValue) {
+		String l_ret = get(anIndex);
+		values[anIndex] = aValue;
+
+		return l_ret;
+	}
+
+	@Override
+	public int size() {
+		return starts.length;
+	}
+
+	/**
+	 * Writes the value of a single field without creating it.
+	 * 
+	 * @param anIndex the index of the field
+	 * @param aWriter the writer to write to
+	 * @throws IOException if an error occurred when writing
+	 */
+	void write(int anIndex, Writer aWriter) throws IOException {
+		Objects.checkIndex(anIndex, starts.length);
+
+		if (values != null && values[anIndex] != null) {
+			aWriter.write(values[anIndex]);
+		} else {
+			write(starts[anIndex], ends[anIndex], aWriter);
+		}
+	}
+
+	/**
+	 * Writes the content of a single field.
+	 * 
+	 * @param aStart  the start offset of the field
+	 * @param anEnd   the end offset (exclusive) of the field
+	 * @param aWriter the writer to write to
+	 * @throws IOException if an error occurred when writing
+	 */
+	protected void write(int aStart, int anEnd, Writer aWriter) throws IOException {
+		aWriter.write(decode(aStart, anEnd));
+	}
+
+	/**
+	 * Creates the value of a single field.
+	 * 
+	 * @param aStart the start offset of the field
+	 * @param anEnd  the end offset (exclusive) of the field
+	 * @return the field value
+	 */
+	protected abstract String decode(int aStart, int anEnd);
+}
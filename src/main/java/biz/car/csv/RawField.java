@@ -0,0 +1,116 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reusable character view of a raw field value in a parser buffer.<br>
+ * The view does not copy ASCII content. A field with non ASCII bytes is
+ * decoded into a string first.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class RawField implements CharSequence {
+
+	private ByteBuffer bytes;
+	private char[] chars;
+	private int len;
+	private int start;
+	private String text;
+
+	/**
+	 * Creates a default <code>RawField</code> instance.
+	 */
+	RawField() {
+		super();
+	}
+
+	@Override
+	public char charAt(int anIndex) {
+		if (anIndex < 0 || anIndex >= len) {
+			throw new IndexOutOfBoundsException(anIndex);
+		}
+		if (text != null) {
+			return text.charAt(anIndex);
+		}
+		if (chars != null) {
+			return chars[start + anIndex];
+		}
+		return (char) bytes.get(start + anIndex);
+	}
+
+	@Override
+	public int length() {
+		return len;
+	}
+
+	@Override
+	public CharSequence subSequence(int aStart, int anEnd) {
+		return toString().subSequence(aStart, anEnd);
+	}
+
+	@Override
+	public String toString() {
+		if (text != null) {
+			return text;
+		}
+		if (chars != null) {
+			return new String(chars, start, len);
+		}
+		byte[] l_bytes = new byte[len];
+		bytes.get(start, l_bytes);
+
+		return new String(l_bytes, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Assigns a field in UTF-8 encoded bytes to this view.
+	 * 
+	 * @param aBuffer the buffer holding the field
+	 * @param aStart  the start offset of the field
+	 * @param anEnd   the end offset (exclusive) of the field
+	 * @return this view
+	 */
+	RawField set(ByteBuffer aBuffer, int aStart, int anEnd) {
+		chars = null;
+		text = null;
+		bytes = aBuffer;
+		start = aStart;
+		len = anEnd - aStart;
+
+		for (int i = aStart; i < anEnd; i++) {
+			if (aBuffer.get(i) < 0) {
+				byte[] l_bytes = new byte[len];
+				aBuffer.get(aStart, l_bytes);
+				text = new String(l_bytes, StandardCharsets.UTF_8);
+				len = text.length();
+				break;
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Assigns a field in a character buffer to this view.
+	 * 
+	 * @param aBuffer the buffer holding the field
+	 * @param aStart  the start offset of the field
+	 * @param anEnd   the end offset (exclusive) of the field
+	 * @return this view
+	 */
+	RawField set(char[] aBuffer, int aStart, int anEnd) {
+		bytes = null;
+		text = null;
+		chars = aBuffer;
+		start = aStart;
+		len = anEnd - aStart;
+
+		return this;
+	}
+}
@@ -0,0 +1,244 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Objects;
+
+/**
+ * An input stream which reads ahead from the underlying stream in a background
+ * thread.
+ * <p>
+ * The background thread fills a bounded number of buffers while the caller
+ * consumes the buffers filled before. If all buffers are filled, the
+ * background thread waits. This lets an expensive underlying stream, e.g. a
+ * decompressing stream, run in parallel with the processing of its content. An
+ * error of the background thread is reported to the caller when the buffers
+ * read before the error have been consumed.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+public class AsyncInputStream extends InputStream {
+
+	/**
+	 * The default number of buffers.
+	 */
+	public static final int BUFFER_COUNT = 4;
+
+	/**
+	 * The default size of a buffer.
+	 */
+	public static final int BUFFER_SIZE = 1 << 16;
+
+	private byte[] active;
+	private boolean bClosed;
+	private boolean bEnd;
+	private int count;
+	private IOException error;
+	private ArrayDeque<byte[]> filled = new ArrayDeque<>();
+	private ArrayDeque<Integer> filledCount = new ArrayDeque<>();
+	private ArrayDeque<byte[]> free = new ArrayDeque<>();
+	private int pos;
+	private InputStream source;
+	private Thread thread;
+
+	/**
+	 * Creates a default <code>AsyncInputStream</code> instance.
+	 * 
+	 * @param aStream the underlying stream
+	 */
+	public AsyncInputStream(InputStream aStream) {
+		this(aStream, BUFFER_SIZE, BUFFER_COUNT);
+	}
+
+	/**
+	 * Creates a default <code>AsyncInputStream</code> instance.
+	 * 
+	 * @param aStream the underlying stream
+	 * @param aSize   the size of each buffer
+	 * @param aCount  the number of buffers which may be filled ahead
+	 */
+	public AsyncInputStream(InputStream aStream, int aSize, int aCount) {
+		super();
+
+		if (aSize <= 0) {
+			throw new IllegalArgumentException(String.valueOf(aSize));
+		}
+		if (aCount <= 0) {
+			throw new IllegalArgumentException(String.valueOf(aCount));
+		}
+		source = Objects.requireNonNull(aStream);
+
+		for (int i = 0; i < aCount; i++) {
+			free.add(new byte[aSize]);
+		}
+		thread = new Thread(this::fill, getClass().getSimpleName());
+
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@Override
+	public int available() throws IOException {
+		ensureOpen();
+
+		return active == null ? 0 : count - pos;
+	}
+
+	/**
+	 * Stops the background thread and closes the underlying stream.
+	 * 
+	 * @throws IOException if an error occurred when closing the underlying stream
+	 */
+	@Override
+	public void close() throws IOException {
+		if (bClosed) {
+			return;
+		}
+		synchronized (this) {
+			bClosed = true;
+			notifyAll();
+		}
+		try {
+			thread.join();
+		} catch (InterruptedException anEx) {
+			Thread.currentThread().interrupt();
+		}
+		source.close();
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!next()) {
+			return -1;
+		}
+		return active[pos++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] aBuffer, int anOffset, int aLength) throws IOException {
+		Objects.checkFromIndexSize(anOffset, aLength, aBuffer.length);
+
+		if (aLength == 0) {
+			return 0;
+		}
+		if (!next()) {
+			return -1;
+		}
+		int l_n = Math.min(aLength, count - pos);
+
+		System.arraycopy(active, pos, aBuffer, anOffset, l_n);
+		pos += l_n;
+
+		return l_n;
+	}
+
+	private void ensureOpen() throws IOException {
+		if (bClosed) {
+			throw new IOException("closed"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * The loop of the background thread.
+	 */
+	private void fill() {
+		while (true) {
+			byte[] l_buf;
+
+			synchronized (this) {
+				while (free.isEmpty() && !bClosed) {
+					try {
+						wait();
+					} catch (InterruptedException anEx) {
+						// the thread is only stopped by closing this stream
+					}
+				}
+				if (bClosed) {
+					return;
+				}
+				l_buf = free.poll();
+			}
+			int l_count = 0;
+
+			try {
+				while (l_count < l_buf.length) {
+					int l_n = source.read(l_buf, l_count, l_buf.length - l_count);
+
+					if (l_n < 0) {
+						break;
+					}
+					l_count += l_n;
+				}
+			} catch (IOException anEx) {
+				synchronized (this) {
+					error = anEx;
+					bEnd = true;
+					notifyAll();
+				}
+				return;
+			}
+			synchronized (this) {
+				if (l_count > 0) {
+					filled.add(l_buf);
+					filledCount.add(l_count);
+				}
+				if (l_count < l_buf.length) {
+					bEnd = true;
+				}
+				notifyAll();
+
+				if (bEnd) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Makes sure that the active buffer has unread content. An exhausted buffer
+	 * is returned to the background thread.
+	 * 
+	 * @return <code>false</code> if the end of the stream has been reached
+	 */
+	private boolean next() throws IOException {
+		ensureOpen();
+
+		if (active != null && pos < count) {
+			return true;
+		}
+		synchronized (this) {
+			if (active != null) {
+				free.add(active);
+				active = null;
+				notifyAll();
+			}
+			while (filled.isEmpty() && !bEnd) {
+				try {
+					wait();
+				} catch (InterruptedException anEx) {
+					Thread.currentThread().interrupt();
+
+					throw new InterruptedIOException();
+				}
+			}
+			if (filled.isEmpty()) {
+				if (error != null) {
+					throw new IOException(error.getMessage(), error);
+				}
+				return false;
+			}
+			active = filled.poll();
+			count = filledCount.poll();
+			pos = 0;
+		}
+		return true;
+	}
+}
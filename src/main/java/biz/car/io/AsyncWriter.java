@@ -0,0 +1,271 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * A double buffered writer which writes to the underlying writer in a
+ * background thread.
+ * <p>
+ * The caller fills one buffer while the background thread drains the other
+ * one. If the caller has filled its buffer before the other one has been
+ * drained, the caller waits. A <code>flush</code> operation waits until all
+ * content written so far has been passed to the underlying writer and that
+ * writer has been flushed. An error of the background thread is reported to
+ * the caller by the next write, flush or close operation.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+public class AsyncWriter extends Writer {
+
+	/**
+	 * The default size of a buffer.
+	 */
+	public static final int BUFFER_SIZE = 1 << 16;
+
+	private char[] active;
+	private boolean bClosed;
+	private int count;
+	private IOException error;
+	private long flushDone;
+	private long flushRequested;
+	private char[] pending;
+	private int pendingCount;
+	private char[] spare;
+	private Writer target;
+	private Thread thread;
+
+	/**
+	 * Creates a default <code>AsyncWriter</code> instance.
+	 * 
+	 * @param aWriter the underlying writer
+	 */
+	public AsyncWriter(Writer aWriter) {
+		this(aWriter, BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates a default <code>AsyncWriter</code> instance.
+	 * 
+	 * @param aWriter the underlying writer
+	 * @param aSize   the size of each of the two buffers
+	 */
+	public AsyncWriter(Writer aWriter, int aSize) {
+		super();
+
+		if (aSize <= 0) {
+			throw new IllegalArgumentException(String.valueOf(aSize));
+		}
+		target = Objects.requireNonNull(aWriter);
+		active = new char[aSize];
+		spare = new char[aSize];
+		thread = new Thread(this::drain, getClass().getSimpleName());
+
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Flushes this writer, stops the background thread and closes the underlying
+	 * writer.
+	 * 
+	 * @throws IOException if an error occurred when writing to the underlying
+	 *                     writer
+	 */
+	@Override
+	public void close() throws IOException {
+		if (bClosed) {
+			return;
+		}
+		try {
+			flush();
+		} finally {
+			synchronized (this) {
+				bClosed = true;
+				notifyAll();
+			}
+			try {
+				thread.join();
+			} catch (InterruptedException anEx) {
+				Thread.currentThread().interrupt();
+			}
+			target.close();
+		}
+	}
+
+	/**
+	 * Passes the content written so far to the background thread and waits until
+	 * it has been written and the underlying writer has been flushed.
+	 * 
+	 * @throws IOException if an error occurred when writing to the underlying
+	 *                     writer
+	 */
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+
+		if (count > 0) {
+			handOver();
+		}
+		synchronized (this) {
+			long l_request = ++flushRequested;
+			notifyAll();
+
+			while (flushDone < l_request && error == null) {
+				await();
+			}
+			checkError();
+		}
+	}
+
+	@Override
+	public void write(char[] aBuffer, int anOffset, int aLength) throws IOException {
+		Objects.checkFromIndexSize(anOffset, aLength, aBuffer.length);
+		ensureOpen();
+
+		int l_off = anOffset;
+		int l_len = aLength;
+
+		while (l_len > 0) {
+			if (count == active.length) {
+				handOver();
+			}
+			int l_n = Math.min(l_len, active.length - count);
+
+			System.arraycopy(aBuffer, l_off, active, count, l_n);
+			count += l_n;
+			l_off += l_n;
+			l_len -= l_n;
+		}
+	}
+
+	@Override
+	public void write(int aChar) throws IOException {
+		ensureOpen();
+
+		if (count == active.length) {
+			handOver();
+		}
+		active[count++] = (char) aChar;
+	}
+
+	@Override
+	public void write(String aText, int anOffset, int aLength) throws IOException {
+		Objects.checkFromIndexSize(anOffset, aLength, aText.length());
+		ensureOpen();
+
+		int l_off = anOffset;
+		int l_len = aLength;
+
+		while (l_len > 0) {
+			if (count == active.length) {
+				handOver();
+			}
+			int l_n = Math.min(l_len, active.length - count);
+
+			aText.getChars(l_off, l_off + l_n, active, count);
+			count += l_n;
+			l_off += l_n;
+			l_len -= l_n;
+		}
+	}
+
+	private void await() throws InterruptedIOException {
+		try {
+			wait();
+		} catch (InterruptedException anEx) {
+			Thread.currentThread().interrupt();
+
+			throw new InterruptedIOException();
+		}
+	}
+
+	private void checkError() throws IOException {
+		if (error != null) {
+			throw new IOException(error.getMessage(), error);
+		}
+	}
+
+	/**
+	 * The loop of the background thread.
+	 */
+	private void drain() {
+		while (true) {
+			char[] l_buf;
+			int l_count;
+			long l_flush;
+
+			synchronized (this) {
+				while (pending == null && flushRequested == flushDone && !bClosed) {
+					try {
+						wait();
+					} catch (InterruptedException anEx) {
+						// the thread is only stopped by closing this writer
+					}
+				}
+				if (pending == null && flushRequested == flushDone) {
+					return;
+				}
+				l_buf = pending;
+				l_count = pendingCount;
+				l_flush = flushRequested;
+			}
+			try {
+				if (l_buf != null) {
+					target.write(l_buf, 0, l_count);
+				}
+				if (l_flush > flushDone) {
+					target.flush();
+				}
+			} catch (IOException anEx) {
+				synchronized (this) {
+					error = anEx;
+					notifyAll();
+				}
+				return;
+			}
+			synchronized (this) {
+				if (l_buf != null) {
+					spare = l_buf;
+					pending = null;
+				}
+				flushDone = l_flush;
+				notifyAll();
+			}
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (bClosed) {
+			throw new IOException("closed"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Passes the active buffer to the background thread and continues with the
+	 * spare buffer. Waits until the background thread has drained the previous
+	 * buffer.
+	 */
+	private synchronized void handOver() throws IOException {
+		while (pending != null && error == null) {
+			await();
+		}
+		checkError();
+
+		pending = active;
+		pendingCount = count;
+		active = spare;
+		spare = null;
+		count = 0;
+
+		notifyAll();
+	}
+}
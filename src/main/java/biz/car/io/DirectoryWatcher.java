@@ -157,6 +157,9 @@ public class DirectoryWatcher {
 			} catch (IOException anEx) {
 				watchThread.interrupt();
 			}
+		} else if (watchThread == null && watchService != null) {
+			// a watcher which has never been started only holds the service
+			cleanup();
 		}
 	}
 
@@ -0,0 +1,241 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * An output stream which writes gzip compressed data and compresses on a pool
+ * of worker threads.
+ * <p>
+ * The data is cut into blocks of a fixed size. Each block is compressed
+ * independently into a complete gzip member, and the members are written to
+ * the underlying stream in the order of the blocks. The concatenated members
+ * form a valid gzip file, which is read by <code>gunzip</code> and by
+ * <code>GZIPInputStream</code> as a whole. The number of blocks in progress is
+ * bounded, so the caller waits if the workers fall behind. An error of a worker
+ * is reported by the next write, flush or close operation.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+	/**
+	 * The default size of a block.
+	 */
+	public static final int BLOCK_SIZE = 1 << 19;
+
+	private static final byte[] HEADER = { 0x1F, (byte) 0x8B, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xFF };
+
+	private byte[] active;
+	private boolean bClosed;
+	private boolean bWritten;
+	private int count;
+	private Executor executor;
+	private int level;
+	private int maxPending;
+	private ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+	private OutputStream target;
+
+	/**
+	 * Creates a default <code>ParallelGzipOutputStream</code> instance. The
+	 * blocks are compressed on the common fork-join pool.
+	 * 
+	 * @param aStream the underlying stream
+	 */
+	public ParallelGzipOutputStream(OutputStream aStream) {
+		this(aStream, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism() + 1,
+				Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Creates a default <code>ParallelGzipOutputStream</code> instance.
+	 * 
+	 * @param aStream    the underlying stream
+	 * @param anExecutor the executor which compresses the blocks
+	 * @param aThreads   the number of threads of the executor
+	 * @param aLevel     the compression level from 0 to 9, or -1 for the default
+	 *                   level
+	 */
+	public ParallelGzipOutputStream(OutputStream aStream, Executor anExecutor, int aThreads, int aLevel) {
+		super();
+
+		if (aThreads <= 0) {
+			throw new IllegalArgumentException(String.valueOf(aThreads));
+		}
+		if (aLevel < Deflater.DEFAULT_COMPRESSION || aLevel > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException(String.valueOf(aLevel));
+		}
+		target = Objects.requireNonNull(aStream);
+		executor = Objects.requireNonNull(anExecutor);
+		maxPending = aThreads * 2;
+		level = aLevel;
+		active = new byte[BLOCK_SIZE];
+	}
+
+	/**
+	 * Compresses and writes the remaining content and closes the underlying
+	 * stream. If nothing has been written, an empty gzip member is written.
+	 * 
+	 * @throws IOException if an error occurred when compressing or writing
+	 */
+	@Override
+	public void close() throws IOException {
+		if (bClosed) {
+			return;
+		}
+		try {
+			if (!bWritten) {
+				handOver();
+			}
+			flush();
+		} finally {
+			bClosed = true;
+			pending.clear();
+			target.close();
+		}
+	}
+
+	/**
+	 * Compresses the content written so far, even if the block is not full, and
+	 * waits until all blocks have been written to the underlying stream.
+	 * 
+	 * @throws IOException if an error occurred when compressing or writing
+	 */
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+
+		if (count > 0) {
+			handOver();
+		}
+		while (!pending.isEmpty()) {
+			writeNext();
+		}
+		target.flush();
+	}
+
+	@Override
+	public void write(byte[] aBuffer, int anOffset, int aLength) throws IOException {
+		Objects.checkFromIndexSize(anOffset, aLength, aBuffer.length);
+		ensureOpen();
+
+		int l_off = anOffset;
+		int l_len = aLength;
+
+		while (l_len > 0) {
+			int l_n = Math.min(l_len, active.length - count);
+
+			System.arraycopy(aBuffer, l_off, active, count, l_n);
+			count += l_n;
+			l_off += l_n;
+			l_len -= l_n;
+
+			if (count == active.length) {
+				handOver();
+			}
+		}
+	}
+
+	@Override
+	public void write(int aByte) throws IOException {
+		ensureOpen();
+
+		active[count++] = (byte) aByte;
+
+		if (count == active.length) {
+			handOver();
+		}
+	}
+
+	/**
+	 * Compresses a block into a gzip member.
+	 */
+	private static byte[] compress(byte[] aBlock, int aCount, int aLevel) {
+		Deflater l_deflater = new Deflater(aLevel, true);
+		CRC32 l_crc = new CRC32();
+		ByteArrayOutputStream l_ret = new ByteArrayOutputStream(aCount / 2 + HEADER.length + 8);
+		byte[] l_buf = new byte[1 << 16];
+
+		try {
+			l_ret.write(HEADER, 0, HEADER.length);
+			l_crc.update(aBlock, 0, aCount);
+			l_deflater.setInput(aBlock, 0, aCount);
+			l_deflater.finish();
+
+			while (!l_deflater.finished()) {
+				l_ret.write(l_buf, 0, l_deflater.deflate(l_buf));
+			}
+		} finally {
+			l_deflater.end();
+		}
+		writeInt(l_ret, (int) l_crc.getValue());
+		writeInt(l_ret, aCount);
+
+		return l_ret.toByteArray();
+	}
+
+	/**
+	 * Writes an integer in little endian byte order.
+	 */
+	private static void writeInt(ByteArrayOutputStream aStream, int aValue) {
+		for (int i = 0; i < 4; i++) {
+			aStream.write(aValue >>> (i * 8));
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (bClosed) {
+			throw new IOException("closed"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Passes the active block to a worker and continues with a new block. Waits
+	 * for the oldest block if too many blocks are in progress.
+	 */
+	private void handOver() throws IOException {
+		if (pending.size() >= maxPending) {
+			writeNext();
+		}
+		byte[] l_block = active;
+		int l_count = count;
+
+		pending.add(CompletableFuture.supplyAsync(() -> compress(l_block, l_count, level), executor));
+		active = new byte[BLOCK_SIZE];
+		count = 0;
+		bWritten = true;
+	}
+
+	/**
+	 * Waits for the oldest block and writes it to the underlying stream.
+	 */
+	private void writeNext() throws IOException {
+		try {
+			target.write(pending.peek().get());
+			pending.poll();
+		} catch (InterruptedException anEx) {
+			Thread.currentThread().interrupt();
+
+			throw new InterruptedIOException();
+		} catch (ExecutionException anEx) {
+			throw new IOException(anEx.getCause().getMessage(), anEx.getCause());
+		}
+	}
+}
@@ -10,19 +10,51 @@ import java.io.BufferedReader;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import biz.car.CAR;
 
 /**
  * A <code>XFileReader</code> can be used to read text input from a file on the
  * file system.
+ * <p>
+ * A gzip compressed file is detected by its extension or by its leading magic
+ * bytes and is decompressed on the fly. The decompression runs in a background
+ * thread which fills a bounded number of buffers ahead of the reader.
  *
  * @version 2.0.0 08.01.2026 08:32:08
  */
 public class XFileReader implements Closeable {
 
+	private static final int GZIP_MAGIC = 0x8B1F;
+
+	/**
+	 * Tests if a file is gzip compressed.
+	 * 
+	 * @param aFile the file to test
+	 * @return <code>true</code> if the file has the extension ".gz" or starts
+	 *         with the gzip magic bytes
+	 * @throws IOException if the file could not be read
+	 */
+	public static boolean isGzip(File aFile) throws IOException {
+		if (aFile.getName().endsWith(CAR._gz)) {
+			return true;
+		}
+		try (FileInputStream l_in = new FileInputStream(aFile)) {
+			int l_b1 = l_in.read();
+			int l_b2 = l_in.read();
+
+			return l_b2 >= 0 && (l_b2 << 8 | l_b1) == GZIP_MAGIC;
+		}
+	}
+
+	private boolean bCompressed;
 	private int count;
 	private String name;
 	private BufferedReader rdr;
@@ -65,7 +97,15 @@ public class XFileReader implements Closeable {
 	}
 
 	/**
-	 * Opens this file for input using the specified <code>File</code>.
+	 * @return <code>true</code> if this file is gzip compressed
+	 */
+	public boolean isCompressed() {
+		return bCompressed;
+	}
+
+	/**
+	 * Opens this file for input using the specified <code>File</code>. A gzip
+	 * compressed file is decompressed while it is read.
 	 * 
 	 * @param aFile the file to use as the input medium.
 	 * @throws IOFoundException if the given file could not be found on the file
@@ -73,8 +113,19 @@ public class XFileReader implements Closeable {
 	 */
 	public void open(File aFile) throws IOException {
 		if (rdr == null) {
-			FileReader l_reader = new FileReader(aFile, StandardCharsets.UTF_8);
-			rdr = new BufferedReader(l_reader);
+			bCompressed = isGzip(aFile);
+			InputStream l_in = new FileInputStream(aFile);
+
+			if (bCompressed) {
+				try {
+					l_in = new AsyncInputStream(new GZIPInputStream(l_in, AsyncInputStream.BUFFER_SIZE));
+				} catch (IOException anEx) {
+					l_in.close();
+
+					throw anEx;
+				}
+			}
+			rdr = new BufferedReader(new InputStreamReader(l_in, StandardCharsets.UTF_8));
 			name = aFile.getPath();
 			count = 0;
 		}
@@ -140,4 +191,31 @@ public class XFileReader implements Closeable {
 	public void resetRecordCount() {
 		count = 0;
 	}
+
+	/**
+	 * Repositions this file to the given byte offset. The next
+	 * <code>read</code> operation starts reading at this offset, so it should be
+	 * the start of a line.
+	 * 
+	 * @param anOffset the byte offset in the file
+	 * @throws IOException           if the file could not be repositioned
+	 * @throws IllegalStateException if the file is not open or if it is
+	 *                               compressed
+	 */
+	public void seek(long anOffset) throws IOException {
+		if (rdr == null || bCompressed) {
+			throw new IllegalStateException();
+		}
+		FileInputStream l_in = new FileInputStream(name);
+
+		try {
+			l_in.getChannel().position(anOffset);
+		} catch (IOException anEx) {
+			l_in.close();
+
+			throw anEx;
+		}
+		rdr.close();
+		rdr = new BufferedReader(new InputStreamReader(l_in, StandardCharsets.UTF_8));
+	}
 }
@@ -9,20 +9,33 @@ package biz.car.io;
 import java.io.BufferedWriter;
 import java.io.Closeable;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 
 /**
  * A <code>XFileWriter</code> can be used to write text output.
+ * <p>
+ * In compressed mode the output is gzip compressed in blocks on a pool of
+ * worker threads, see {@link ParallelGzipOutputStream}. The mode must be
+ * switched on by {@link #setCompressed(boolean)}, the name of the file is not
+ * taken into account. Appending to a compressed file adds further gzip members,
+ * so the file stays valid.
  *
  * @version 2.0.0 08.01.2026 08:32:08
  */
 public class XFileWriter implements Closeable {
 
+	private static final String NEWLINE = System.lineSeparator();
+
+	private boolean bAsync;
+	private boolean bCompressed;
 	private int count;
 	private String name;
-	private BufferedWriter writer;
+	private Writer writer;
 
 	/**
 	 * Creates a default <code>XFileWriter</code> instance.
@@ -92,8 +105,15 @@ public class XFileWriter implements Closeable {
 	public void open(File aFile, boolean bAppend) throws IOException {
 		if (writer == null) {
 			count = 0;
-			FileWriter l_fw = new FileWriter(aFile, StandardCharsets.UTF_8, bAppend);
-			writer = new BufferedWriter(l_fw);
+			Writer l_fw;
+
+			if (bCompressed) {
+				l_fw = new OutputStreamWriter(new ParallelGzipOutputStream(new FileOutputStream(aFile, bAppend)),
+						StandardCharsets.UTF_8);
+			} else {
+				l_fw = new FileWriter(aFile, StandardCharsets.UTF_8, bAppend);
+			}
+			writer = bAsync ? new AsyncWriter(l_fw) : new BufferedWriter(l_fw);
 			name = aFile.getPath();
 		}
 	}
@@ -133,6 +153,41 @@ public class XFileWriter implements Closeable {
 		count = 0;
 	}
 
+	/**
+	 * Switches the asynchronous mode on or off.<br>
+	 * In asynchronous mode the output is written to the file by a background
+	 * thread, see {@link AsyncWriter}. Errors of the background thread are
+	 * reported by the next write, flush or close operation.
+	 * 
+	 * @param isAsync <code>true</code> to write the file asynchronously
+	 * @throws IllegalStateException if the file has already been opened.
+	 */
+	public void setAsync(boolean isAsync) {
+		if (writer == null) {
+			bAsync = isAsync;
+
+			return;
+		}
+		throw new IllegalStateException();
+	}
+
+	/**
+	 * Switches the compressed mode on or off.<br>
+	 * In compressed mode the file is written in gzip format. The compression of
+	 * the output runs in parallel on the common fork-join pool.
+	 * 
+	 * @param isCompressed <code>true</code> to write a gzip compressed file
+	 * @throws IllegalStateException if the file has already been opened.
+	 */
+	public void setCompressed(boolean isCompressed) {
+		if (writer == null) {
+			bCompressed = isCompressed;
+
+			return;
+		}
+		throw new IllegalStateException();
+	}
+
 	/**
 	 * Writes the specified string to the file.
 	 * 
@@ -141,7 +196,26 @@ public class XFileWriter implements Closeable {
 	 */
 	public void write(String aLine) throws IOException {
 		writer.write(aLine, 0, aLine.length());
-		writer.newLine();
+		endRecord();
+	}
+
+	/**
+	 * Terminates a record which has been written directly to the output.
+	 * 
+	 * @throws IOException if an error occurred when writing to the file
+	 */
+	protected void endRecord() throws IOException {
+		writer.write(NEWLINE);
 		count++;
 	}
+
+	/**
+	 * Gives subclasses direct access to the buffered output.<br>
+	 * A record written this way must be terminated by {@link #endRecord()}.
+	 * 
+	 * @return the writer of the open file
+	 */
+	protected Writer out() {
+		return writer;
+	}
 }
\ No newline at end of file
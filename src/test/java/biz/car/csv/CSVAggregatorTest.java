@@ -0,0 +1,148 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks the aggregates of a <code>CSVAggregator</code> with the groups held
+ * in memory and with the groups spilled to temporary files.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CSVAggregatorTest {
+
+	private static final String[] NAMES = { "anna", "", "bob", " ", "\"\"", "carl" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * Writes a CSV file with a group column, a text column and a numeric column.
+	 */
+	private File createFile() throws IOException {
+		StringBuilder l_text = new StringBuilder("grp;name;amt\n"); //$NON-NLS-1$
+
+		for (int i = 0; i < 600; i++) {
+			l_text.append('g').append(i % 40).append(';').append(NAMES[i % NAMES.length]).append(';')
+					.append(i % 7 == 0 ? "x" : i + ",5").append('\n'); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		File l_ret = dir.resolve("agg.csv").toFile(); //$NON-NLS-1$
+		Files.writeString(l_ret.toPath(), l_text, StandardCharsets.UTF_8);
+
+		return l_ret;
+	}
+
+	/**
+	 * @return the expected result lines in the order of the groups. The invalid
+	 *         amounts are counted but not summed.
+	 */
+	private static List<String> expected() {
+		List<String> l_groups = new ArrayList<>();
+		List<String> l_ret = new ArrayList<>();
+
+		for (int g = 0; g < 40; g++) {
+			l_groups.add("g" + g); //$NON-NLS-1$
+		}
+		l_groups.sort(null);
+		l_ret.add("grp;count(*);count(name);count(amt);sum(amt)"); //$NON-NLS-1$
+
+		for (String l_group : l_groups) {
+			int g = Integer.parseInt(l_group.substring(1));
+			long l_records = 0;
+			long l_names = 0;
+			double l_sum = 0;
+
+			for (int i = g; i < 600; i += 40) {
+				String l_name = NAMES[i % NAMES.length].trim();
+
+				l_records++;
+				l_names += l_name.isEmpty() || l_name.equals("\"\"") ? 0 : 1; //$NON-NLS-1$
+
+				if (i % 7 != 0) {
+					l_sum += i + 0.5;
+				}
+			}
+			String l_text = l_sum == Math.rint(l_sum) ? Long.toString((long) l_sum) : Double.toString(l_sum);
+
+			l_ret.add(l_group + ';' + l_records + ';' + l_names + ';' + l_records + ';' + l_text);
+		}
+		return l_ret;
+	}
+
+	private static CSVAggregator create(long aBudget) {
+		CSVAggregator l_ret = new CSVAggregator("grp"); //$NON-NLS-1$
+
+		l_ret.setBudget(aBudget);
+		l_ret.addAggregate(CSVAggregator.Function.COUNT, null);
+		l_ret.addAggregate(CSVAggregator.Function.COUNT, "name"); //$NON-NLS-1$
+		l_ret.addAggregate(CSVAggregator.Function.COUNT, "amt"); //$NON-NLS-1$
+		l_ret.addAggregate(CSVAggregator.Function.SUM, "amt"); //$NON-NLS-1$
+
+		return l_ret;
+	}
+
+	/**
+	 * Aggregates a file and returns the lines of the result file.
+	 */
+	private List<String> aggregate(long aBudget, boolean isParallel) throws IOException {
+		File l_in = createFile();
+		File l_out = dir.resolve("out.csv").toFile(); //$NON-NLS-1$
+		File l_temp = Files.createDirectories(dir.resolve("temp")).toFile(); //$NON-NLS-1$
+		CSVAggregator l_agg = create(aBudget);
+		CSVReader l_rdr = new CSVReader();
+
+		l_agg.setTempDirectory(l_temp);
+
+		try {
+			l_rdr.open(l_in);
+
+			if (isParallel) {
+				l_agg.aggregate(l_rdr);
+			} else {
+				l_agg.onInit();
+
+				for (CSVRecord l_rec = l_rdr.readRecord(); l_rec != null; l_rec = l_rdr.readRecord()) {
+					l_agg.handle(l_rec);
+				}
+				l_agg.onExit();
+			}
+		} finally {
+			l_rdr.close();
+		}
+		try (CSVWriter l_wrt = new CSVWriter()) {
+			l_wrt.open(l_out);
+			l_agg.writeTo(l_wrt);
+		}
+		assertEquals(0, l_temp.list().length);
+
+		return Files.readAllLines(l_out.toPath(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void countsTextColumnInMemory() throws IOException {
+		assertEquals(expected(), aggregate(1L << 30, false));
+		assertEquals(expected(), aggregate(1L << 30, true));
+	}
+
+	@Test
+	void countsTextColumnWithSpill() throws IOException {
+		assertEquals(expected(), aggregate(1, false));
+		assertEquals(expected(), aggregate(1, true));
+	}
+}
@@ -0,0 +1,82 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that a checkpoint is only resumed for the file it was saved for.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CSVCheckpointTest {
+
+	private static final CSVHeader HEADER = CSVRecord.Header(List.of("id", "name")) //$NON-NLS-1$ //$NON-NLS-2$
+			.Delimiter(CSV.DELIMITER);
+	private static final String LINES = "id;name\n1;anna\n2;bob\n3;carl\n"; //$NON-NLS-1$
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * Saves a checkpoint after the second record of a file.
+	 */
+	private File save() throws IOException {
+		File l_ret = dir.resolve("chk.csv").toFile(); //$NON-NLS-1$
+		Files.writeString(l_ret.toPath(), LINES, StandardCharsets.UTF_8);
+
+		CSVCheckpoint l_chk = CSVCheckpoint.open(l_ret, HEADER, 1);
+		l_chk.update(offset(), 2);
+		l_chk.save();
+
+		return l_ret;
+	}
+
+	/**
+	 * @return the file offset after the second record
+	 */
+	private static long offset() {
+		return "id;name\n1;anna\n2;bob\n".length(); //$NON-NLS-1$
+	}
+
+	@Test
+	void resumesUnchangedFile() throws IOException {
+		File l_file = save();
+		Files.writeString(l_file.toPath(), "4;dora\n", StandardCharsets.UTF_8, //$NON-NLS-1$
+				StandardOpenOption.APPEND);
+
+		CSVCheckpoint l_chk = CSVCheckpoint.open(l_file, HEADER, 1);
+
+		assertEquals(offset(), l_chk.offset());
+		assertEquals(2, l_chk.count());
+	}
+
+	@Test
+	void discardsRewrittenFile() throws IOException {
+		File l_file = save();
+
+		// the offset falls inside a record
+		Files.writeString(l_file.toPath(), "id;name\n1;annabelle\n2;bob\n", StandardCharsets.UTF_8); //$NON-NLS-1$
+		assertEquals(-1, CSVCheckpoint.open(l_file, HEADER, 1).offset());
+
+		// the offset falls after a record, but the content differs
+		Files.writeString(l_file.toPath(), "id;name\n1;emma\n2;tom\n3;carl\n", StandardCharsets.UTF_8); //$NON-NLS-1$
+		assertEquals(-1, CSVCheckpoint.open(l_file, HEADER, 1).offset());
+		assertEquals(0, CSVCheckpoint.open(l_file, HEADER, 1).count());
+	}
+}
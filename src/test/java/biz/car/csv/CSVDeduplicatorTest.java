@@ -0,0 +1,98 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that a <code>CSVDeduplicator</code> passes the first record of each
+ * key, also after its table has grown and with the keys read back in exact
+ * mode.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CSVDeduplicatorTest {
+
+	// more keys than the initial table holds before it grows
+	private static final int KEYS = 5000;
+
+	private static final CSVHeader HEADER = CSVRecord.Header(List.of("id", "name", "seq")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			.Delimiter(CSV.DELIMITER);
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * @return a record of the given key, the sequence number is not part of the
+	 *         key
+	 */
+	private static CSVRecord record(int aKey, int aSeq) {
+		// the names have different lengths and non-ASCII characters
+		String l_name = "näme".repeat(aKey % 50) + aKey; //$NON-NLS-1$
+
+		return HEADER.Record(List.of(String.valueOf(aKey % 97), l_name, String.valueOf(aSeq)));
+	}
+
+	/**
+	 * Passes every key three times and checks that only the first record of a
+	 * key is new.
+	 */
+	private void check(CSVDeduplicator aDedup) {
+		int l_seq = 0;
+
+		aDedup.onInit();
+
+		for (int l_pass = 0; l_pass < 3; l_pass++) {
+			for (int i = 0; i < KEYS; i++) {
+				int l_key = l_pass == 0 ? i : (i * 7919) % KEYS;
+
+				assertEquals(l_pass == 0, aDedup.isNew(record(l_key, l_seq++)), "key " + l_key); //$NON-NLS-1$
+			}
+		}
+		assertEquals(2L * KEYS, aDedup.getDuplicateCount());
+		aDedup.onExit();
+	}
+
+	@Test
+	void dedupAcrossGrow() {
+		check(new CSVDeduplicator(null, "id", "name")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	void exactModeReadsKeysBack() throws Exception {
+		File l_temp = Files.createDirectories(dir.resolve("temp")).toFile(); //$NON-NLS-1$
+		CSVDeduplicator l_dedup = new CSVDeduplicator(null, "id", "name"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		l_dedup.setExact(true);
+		l_dedup.setTempDirectory(l_temp);
+		check(l_dedup);
+
+		// the key file is deleted at the end
+		assertEquals(0, l_temp.list().length);
+	}
+
+	@Test
+	void missingKeyColumn() {
+		CSVDeduplicator l_dedup = new CSVDeduplicator(null, "id", "missing"); //$NON-NLS-1$ //$NON-NLS-2$
+		RuntimeException l_ex = assertThrows(RuntimeException.class, () -> l_dedup.isNew(record(1, 0)));
+
+		assertTrue(l_ex.getMessage().contains("missing"), l_ex.getMessage()); //$NON-NLS-1$
+		// the header line is not reported as a file name
+		assertFalse(l_ex.getMessage().contains(HEADER.toString()), l_ex.getMessage());
+	}
+}
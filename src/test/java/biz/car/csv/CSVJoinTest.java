@@ -0,0 +1,171 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks the joins of a <code>CSVJoin</code> against a nested loop join. Small
+ * budgets force the partitioned join, the sort-merge join of the partitions
+ * and the spilling of large groups of equal keys.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CSVJoinTest {
+
+	// the budgets of the hash join, the partitioned join and the sort-merge join
+	private static final long[] BUDGETS = { 1L << 30, 1L << 12, 1 };
+
+	@TempDir
+	Path dir;
+
+	private File left;
+	private List<String[]> leftRows = new ArrayList<>();
+	private File right;
+	private List<String[]> rightRows = new ArrayList<>();
+	private File temp;
+
+	@BeforeEach
+	void createFiles() throws IOException {
+		Random l_random = new Random(17);
+		StringBuilder l_left = new StringBuilder("id;cust;amt\n"); //$NON-NLS-1$
+		StringBuilder l_right = new StringBuilder("cust;name;amt\n"); //$NON-NLS-1$
+
+		for (int i = 0; i < 400; i++) {
+			String[] l_row = { String.valueOf(i), "c" + l_random.nextInt(120), String.valueOf(i % 10) }; //$NON-NLS-1$
+
+			leftRows.add(l_row);
+			l_left.append(String.join(";", l_row)).append('\n'); //$NON-NLS-1$
+		}
+		for (int i = 0; i < 300; i++) {
+			// a third of the right records share a few keys
+			String l_cust = i % 3 == 0 ? "c" + i % 4 : "c" + l_random.nextInt(200); //$NON-NLS-1$ //$NON-NLS-2$
+			String[] l_row = { l_cust, "name" + i, String.valueOf(i) }; //$NON-NLS-1$
+
+			rightRows.add(l_row);
+			l_right.append(String.join(";", l_row)).append('\n'); //$NON-NLS-1$
+		}
+		left = dir.resolve("left.csv").toFile(); //$NON-NLS-1$
+		right = dir.resolve("right.csv").toFile(); //$NON-NLS-1$
+		temp = Files.createDirectories(dir.resolve("temp")).toFile(); //$NON-NLS-1$
+		Files.writeString(left.toPath(), l_left, StandardCharsets.UTF_8);
+		Files.writeString(right.toPath(), l_right, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return the sorted records of a nested loop join
+	 */
+	private List<String> expected(CSVJoin.Mode aMode) {
+		List<String> l_ret = new ArrayList<>();
+
+		for (String[] l_left : leftRows) {
+			boolean l_matched = false;
+
+			for (String[] l_right : rightRows) {
+				if (l_left[1].equals(l_right[0])) {
+					l_matched = true;
+
+					if (aMode != CSVJoin.Mode.ANTI) {
+						l_ret.add(String.join(";", l_left) + ';' + l_right[1] + ';' + l_right[2]); //$NON-NLS-1$
+					}
+				}
+			}
+			if (!l_matched && aMode == CSVJoin.Mode.LEFT) {
+				l_ret.add(String.join(";", l_left) + ";;"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			if (!l_matched && aMode == CSVJoin.Mode.ANTI) {
+				l_ret.add(String.join(";", l_left)); //$NON-NLS-1$
+			}
+		}
+		l_ret.sort(null);
+
+		return l_ret;
+	}
+
+	/**
+	 * @return the sorted records of a join with the given budget
+	 */
+	private List<String> join(CSVJoin.Mode aMode, long aBudget) throws IOException {
+		List<String> l_ret = new ArrayList<>();
+		CSVJoin l_join = new CSVJoin(aMode);
+		CSVReader l_left = new CSVReader();
+		CSVReader l_right = new CSVReader();
+
+		l_join.addKey("cust", "cust"); //$NON-NLS-1$ //$NON-NLS-2$
+		l_join.setBudget(aBudget);
+		l_join.setTempDirectory(temp);
+
+		try {
+			l_left.open(left);
+			l_right.open(right);
+			l_join.join(l_left, l_right, new CSVHandler() {
+				@Override
+				public void handle(CSVRecord aRecord) {
+					l_ret.add(String.join(";", aRecord.values())); //$NON-NLS-1$
+				}
+
+				@Override
+				public void onError(Exception anEx) {
+					// not called by a join
+				}
+
+				@Override
+				public void onExit() {
+					// not called by a join
+				}
+
+				@Override
+				public void onInit() {
+					// not called by a join
+				}
+			});
+		} finally {
+			l_left.close();
+			l_right.close();
+		}
+		assertEquals(0, temp.list().length);
+		l_ret.sort(null);
+
+		return l_ret;
+	}
+
+	private void check(CSVJoin.Mode aMode) throws IOException {
+		List<String> l_expected = expected(aMode);
+
+		for (long l_budget : BUDGETS) {
+			assertEquals(l_expected, join(aMode, l_budget), "budget " + l_budget); //$NON-NLS-1$
+		}
+	}
+
+	@Test
+	void antiJoin() throws IOException {
+		check(CSVJoin.Mode.ANTI);
+	}
+
+	@Test
+	void innerJoin() throws IOException {
+		check(CSVJoin.Mode.INNER);
+	}
+
+	@Test
+	void leftJoin() throws IOException {
+		check(CSVJoin.Mode.LEFT);
+	}
+}
@@ -0,0 +1,208 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the character parser, the byte parser and the former split based
+ * parser break CSV content into the same records and fields.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CSVParserTest {
+
+	/**
+	 * The split based parser which was replaced by the quote state machine. It
+	 * is kept as a reference for the content it handled correctly.
+	 */
+	private static class LegacyParser {
+
+		private List<String> fieldList = new ArrayList<>();
+		private boolean state = true;
+
+		List<String> fields() {
+			List<String> l_ret = new ArrayList<>(fieldList);
+
+			fieldList.clear();
+
+			return l_ret;
+		}
+
+		boolean parse(String aLine) {
+			List<String> l_tokenList = new ArrayList<>(Arrays.asList(aLine.split(CSV.DELIMITER)));
+
+			if (aLine.endsWith(CSV.DELIMITER)) {
+				l_tokenList.add(""); //$NON-NLS-1$
+			}
+			for (int i = 0; i < l_tokenList.size(); i++) {
+				String l_token = l_tokenList.get(i);
+
+				if (state) {
+					fieldList.add(l_token);
+					state = !l_token.startsWith(CSV.DQ) || l_token.length() > 1 && isClosed(l_token.substring(1));
+				} else {
+					int l_index = fieldList.size() - 1;
+					String l_delim = i > 0 ? CSV.DELIMITER : CSV.NEWLINE;
+
+					fieldList.set(l_index, fieldList.get(l_index) + l_delim + l_token);
+					state = isClosed(l_token);
+				}
+			}
+			return state;
+		}
+
+		private boolean isClosed(String aToken) {
+			Matcher l_matcher = CSV.DQ2_PATTERN.matcher(aToken);
+
+			return l_matcher.find() && l_matcher.group().length() % 2 == 1;
+		}
+	}
+
+	private static final String DELIM = CSV.DELIMITER;
+
+	// content which the former parser handled correctly
+	private static final String[] COMMON = {
+			"a;b;c\n1;2;3\n", //$NON-NLS-1$
+			"\"a;b\";c\n", //$NON-NLS-1$
+			"\"say \"\"hi\"\"\";x\n", //$NON-NLS-1$
+			"12\" pipe;steel\n3\" tube;copper\n", //$NON-NLS-1$
+			"a;;b\n;x\na;b;\n", //$NON-NLS-1$
+			"a;b\r\n1;2\r\n", //$NON-NLS-1$
+			"\"line1\nline2\";x\ny;\"multi\n\nline\"\n", //$NON-NLS-1$
+			"\"a;\nb;c\";d\n", //$NON-NLS-1$
+	};
+
+	// content which only the quote state machine handles correctly
+	private static final String[] QUOTED = {
+			"\"ab\"c;d\n", //$NON-NLS-1$
+			"x;\"\"\n", //$NON-NLS-1$
+			"x;\"\"\"\"\n", //$NON-NLS-1$
+			"\"a\"\"\nb\";c\n", //$NON-NLS-1$
+			"5\" x 3\";\"quoted;\"\"value\"\"\"\n", //$NON-NLS-1$
+			"last;line", //$NON-NLS-1$
+	};
+
+	/**
+	 * Breaks a text into records with the byte parser.
+	 */
+	private static List<List<String>> byteRecords(String aText) {
+		List<List<String>> l_ret = new ArrayList<>();
+		ByteBuffer l_buf = ByteBuffer.wrap(aText.getBytes(StandardCharsets.UTF_8));
+		CSVByteParser l_parser = new CSVByteParser(DELIM);
+		int l_pos = 0;
+
+		while (l_pos < l_buf.limit()) {
+			l_pos = l_parser.parse(l_buf, l_pos, l_buf.limit(), true);
+			l_ret.add(new ArrayList<>(l_parser.fields(l_buf)));
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Breaks a text into records with the character parser. The text is passed
+	 * line by line without line breaks as by a line reader.
+	 */
+	private static List<List<String>> charRecords(String aText) {
+		List<List<String>> l_ret = new ArrayList<>();
+		CSVParser l_parser = new CSVParser(DELIM);
+
+		for (String l_line : lines(aText)) {
+			if (l_parser.parse(l_line)) {
+				l_ret.add(new ArrayList<>(l_parser.fields()));
+			}
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Breaks a text into records with the former split based parser.
+	 */
+	private static List<List<String>> legacyRecords(String aText) {
+		List<List<String>> l_ret = new ArrayList<>();
+		LegacyParser l_parser = new LegacyParser();
+
+		for (String l_line : lines(aText)) {
+			if (l_parser.parse(l_line)) {
+				l_ret.add(l_parser.fields());
+			}
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Splits a text into lines like <code>BufferedReader.readLine()</code>.
+	 */
+	private static List<String> lines(String aText) {
+		List<String> l_ret = new ArrayList<>();
+
+		for (String l_line : aText.split("\r?\n", -1)) { //$NON-NLS-1$
+			l_ret.add(l_line);
+		}
+		if (aText.endsWith("\n")) { //$NON-NLS-1$
+			l_ret.remove(l_ret.size() - 1);
+		}
+		return l_ret;
+	}
+
+	@Test
+	void byteParserMatchesCharParser() {
+		for (String l_text : COMMON) {
+			assertEquals(charRecords(l_text), byteRecords(l_text), l_text);
+		}
+		for (String l_text : QUOTED) {
+			assertEquals(charRecords(l_text), byteRecords(l_text), l_text);
+		}
+	}
+
+	@Test
+	void charParserMatchesLegacyParser() {
+		for (String l_text : COMMON) {
+			assertEquals(legacyRecords(l_text), charRecords(l_text), l_text);
+		}
+	}
+
+	@Test
+	void fieldsKeepQuotes() {
+		assertEquals(List.of(List.of("\"a;b\"", "c")), byteRecords("\"a;b\";c\n")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals(List.of(List.of("12\" pipe", "steel")), byteRecords("12\" pipe;steel\r\n")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals(List.of(List.of("\"ab\"c", "d")), charRecords("\"ab\"c;d\n")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	@Test
+	void multiCharacterDelimiter() {
+		String l_text = "\"a||b\"||c||\nx||\"y\"\n"; //$NON-NLS-1$
+		List<List<String>> l_expected = List.of(List.of("\"a||b\"", "c", ""), List.of("x", "\"y\"")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		ByteBuffer l_buf = ByteBuffer.wrap(l_text.getBytes(StandardCharsets.UTF_8));
+		CSVByteParser l_bytes = new CSVByteParser("||"); //$NON-NLS-1$
+		CSVParser l_chars = new CSVParser("||"); //$NON-NLS-1$
+		List<List<String>> l_byteRecords = new ArrayList<>();
+		List<List<String>> l_charRecords = new ArrayList<>();
+		int l_pos = 0;
+
+		while (l_pos < l_buf.limit()) {
+			l_pos = l_bytes.parse(l_buf, l_pos, l_buf.limit(), true);
+			l_byteRecords.add(new ArrayList<>(l_bytes.fields(l_buf)));
+		}
+		for (String l_line : lines(l_text)) {
+			if (l_chars.parse(l_line)) {
+				l_charRecords.add(new ArrayList<>(l_chars.fields()));
+			}
+		}
+		assertEquals(l_expected, l_byteRecords);
+		assertEquals(l_expected, l_charRecords);
+	}
+}
@@ -0,0 +1,131 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks the order of the records sorted by a <code>CSVSorter</code>, in a
+ * single run and merged from many runs.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CSVSorterTest {
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * Sorts a CSV text by one key column and returns the values of the first
+	 * column of the sorted records.
+	 */
+	private List<String> sort(String aText, long aBudget, CSVSorter.Type aType, boolean isDescending)
+			throws IOException {
+		File l_in = dir.resolve("in.csv").toFile(); //$NON-NLS-1$
+		File l_out = dir.resolve("out.csv").toFile(); //$NON-NLS-1$
+		File l_temp = Files.createDirectories(dir.resolve("temp")).toFile(); //$NON-NLS-1$
+		CSVSorter l_sorter = new CSVSorter();
+		CSVReader l_rdr = new CSVReader();
+		List<String> l_ret = new ArrayList<>();
+
+		Files.writeString(l_in.toPath(), aText, StandardCharsets.UTF_8);
+		l_sorter.addKey("key", aType, isDescending); //$NON-NLS-1$
+		l_sorter.setBudget(aBudget);
+		l_sorter.setTempDirectory(l_temp);
+
+		try (CSVWriter l_wrt = new CSVWriter()) {
+			l_rdr.open(l_in);
+			l_wrt.open(l_out);
+			l_sorter.sort(l_rdr, l_wrt);
+		} finally {
+			l_rdr.close();
+		}
+		assertEquals(0, l_temp.list().length);
+
+		try {
+			l_rdr.open(l_out);
+
+			for (CSVRecord l_rec = l_rdr.readRecord(); l_rec != null; l_rec = l_rdr.readRecord()) {
+				l_ret.add(l_rec.getValue(0));
+			}
+		} finally {
+			l_rdr.close();
+		}
+		return l_ret;
+	}
+
+	/**
+	 * @return a CSV text with an id and a key column
+	 */
+	private static String text(String... aKeys) {
+		StringBuilder l_ret = new StringBuilder("id;key\n"); //$NON-NLS-1$
+
+		for (int i = 0; i < aKeys.length; i++) {
+			l_ret.append(i).append(';').append(aKeys[i]).append('\n');
+		}
+		return l_ret.toString();
+	}
+
+	@Test
+	void datesSortChronologically() throws IOException {
+		String l_text = text("01.02.2020", "31.12.2019", "15.01.2020", "01.01.2021"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+		assertEquals(List.of("1", "2", "0", "3"), sort(l_text, CSVSorter.BUDGET, CSVSorter.Type.DATE, false)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	@Test
+	void emptyAndInvalidKeysSortFirst() throws IOException {
+		String l_text = text("2", "", "abc", "-1,5", "\"\"", "31.02.2020"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+
+		assertEquals(List.of("1", "2", "4", "5", "3", "0"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+				sort(l_text, CSVSorter.BUDGET, CSVSorter.Type.NUMBER, false));
+		assertEquals(List.of("0", "1", "2", "3", "4", "5"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+				sort(text("", "abc", "1.1.2020", "\"\"", "01.01.2020", "02.01.2020"), 1, CSVSorter.Type.DATE, false)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+	}
+
+	@Test
+	void numbersWithDecimalComma() throws IOException {
+		String l_text = text("10,5", "9,75", "-3", "100", "9,8"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+		assertEquals(List.of("2", "1", "4", "0", "3"), sort(l_text, CSVSorter.BUDGET, CSVSorter.Type.NUMBER, false)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		assertEquals(List.of("3", "0", "4", "1", "2"), sort(l_text, 1, CSVSorter.Type.NUMBER, true)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+	}
+
+	@Test
+	void stableWithManyRuns() throws IOException {
+		Random l_random = new Random(3);
+		String[] l_keys = new String[2000];
+		List<Integer> l_expected = new ArrayList<>();
+
+		for (int i = 0; i < l_keys.length; i++) {
+			l_keys[i] = "k" + l_random.nextInt(25); //$NON-NLS-1$
+			l_expected.add(i);
+		}
+		// a stable sort keeps the ids of equal keys in ascending order
+		l_expected.sort(Comparator.comparing((Integer i) -> l_keys[i]));
+
+		// about 10 records per run give more runs than are merged at once
+		for (long l_budget : new long[] { CSVSorter.BUDGET, 200 }) {
+			List<String> l_actual = sort(text(l_keys), l_budget, CSVSorter.Type.STRING, false);
+
+			assertEquals(l_expected.stream().map(String::valueOf).toList(), l_actual);
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/* --------------------------------------------------------------------------
+ * Project: CAR - Common Application Runtime
+ * --------------------------------------------------------------------------
+ * Use of this software is subject to license terms. All Rights Reserved. 
+ * -------------------------------------------------------------------------- */
+
+package biz.car.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that the byte ranges of a <code>CSVSplitter</code> give the same
+ * records as a sequential read, for content with literal quotes in unquoted
+ * fields, quoted delimiters and line breaks and CRLF line breaks.
+ *
+ * @version 2.0.0 08.01.2026 08:32:08
+ */
+class CSVSplitterTest {
+
+	private static final String LONG_DELIM = "|#|"; //$NON-NLS-1$
+
+	private static final String[] VALUES = {
+			"plain", //$NON-NLS-1$
+			"12\" pipe", //$NON-NLS-1$
+			"5\" x 3\"", //$NON-NLS-1$
+			"\"quoted;value\"", //$NON-NLS-1$
+			"\"multi\nline\"", //$NON-NLS-1$
+			"\"multi\r\n;line\"", //$NON-NLS-1$
+			"\"say \"\"hi\"\"\"", //$NON-NLS-1$
+			"\"\"", //$NON-NLS-1$
+			"\"ab\"c", //$NON-NLS-1$
+			"", //$NON-NLS-1$
+	};
+
+	@TempDir
+	static Path dir;
+
+	private static File file;
+	private static File longDelimFile;
+
+	@BeforeAll
+	static void createFiles() throws IOException {
+		file = createFile("split.csv", CSV.DELIMITER); //$NON-NLS-1$
+		longDelimFile = createFile("split2.csv", LONG_DELIM); //$NON-NLS-1$
+	}
+
+	/**
+	 * Writes a CSV file with random values.
+	 */
+	private static File createFile(String aName, String aDelim) throws IOException {
+		Random l_random = new Random(4711);
+		StringBuilder l_text = new StringBuilder(String.join(aDelim, "id", "a", "b", "c")).append('\n'); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+		for (int i = 0; i < 500; i++) {
+			l_text.append(i);
+
+			for (int j = 0; j < 3; j++) {
+				l_text.append(aDelim).append(VALUES[l_random.nextInt(VALUES.length)].replace(";", aDelim)); //$NON-NLS-1$
+			}
+			l_text.append(l_random.nextBoolean() ? "\r\n" : "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		File l_ret = dir.resolve(aName).toFile();
+		Files.writeString(l_ret.toPath(), l_text, StandardCharsets.UTF_8);
+
+		return l_ret;
+	}
+
+	/**
+	 * Reads the records of a file sequentially.
+	 */
+	private static List<List<String>> readSequential(File aFile, String aDelim, boolean isMapped)
+			throws IOException {
+		List<List<String>> l_ret = new ArrayList<>();
+		CSVReader l_rdr = new CSVReader();
+
+		try {
+			l_rdr.setDelimiter(aDelim);
+			l_rdr.setMapped(isMapped);
+			l_rdr.open(aFile);
+
+			for (CSVRecord l_rec = l_rdr.readRecord(); l_rec != null; l_rec = l_rdr.readRecord()) {
+				l_ret.add(new ArrayList<>(l_rec.values()));
+			}
+		} finally {
+			l_rdr.close();
+		}
+		return l_ret;
+	}
+
+	/**
+	 * Parses a file in byte ranges of several sizes and compares the records
+	 * with a sequential read.
+	 */
+	private static void checkRanges(File aFile, String aDelim) throws IOException {
+		List<List<String>> l_expected = readSequential(aFile, aDelim, false);
+		CSVReader l_rdr = new CSVReader();
+
+		try {
+			l_rdr.setDelimiter(aDelim);
+			l_rdr.setMapped(true);
+			l_rdr.open(aFile);
+
+			try (CSVSplitter l_split = l_rdr.splitter()) {
+				for (long l_chunk : new long[] { 7, 61, 1024, 1 << 20 }) {
+					long[] l_bounds = l_split.split(l_rdr.position(), l_split.size(), l_chunk,
+							ForkJoinPool.commonPool());
+					List<List<String>> l_actual = new ArrayList<>();
+
+					for (int i = 0; i < l_bounds.length - 1; i++) {
+						for (CSVRecord l_rec : l_split.parse(l_bounds[i], l_bounds[i + 1])) {
+							l_actual.add(new ArrayList<>(l_rec.values()));
+						}
+					}
+					assertEquals(l_expected, l_actual, "chunk size " + l_chunk); //$NON-NLS-1$
+				}
+			}
+		} finally {
+			l_rdr.close();
+		}
+	}
+
+	@Test
+	void mappedMatchesLineMode() throws IOException {
+		assertEquals(500, readSequential(file, CSV.DELIMITER, false).size());
+		assertEquals(readSequential(file, CSV.DELIMITER, false), readSequential(file, CSV.DELIMITER, true));
+		assertEquals(readSequential(longDelimFile, LONG_DELIM, false),
+				readSequential(longDelimFile, LONG_DELIM, true));
+	}
+
+	@Test
+	void parallelStreamMatchesSequential() throws IOException {
+		List<List<String>> l_expected = readSequential(file, CSV.DELIMITER, false);
+		CSVReader l_rdr = new CSVReader();
+
+		try {
+			l_rdr.open(file);
+
+			try (Stream<CSVRecord> l_stream = l_rdr.stream()) {
+				List<List<String>> l_actual = l_stream.parallel()
+						.map(l_rec -> (List<String>) new ArrayList<>(l_rec.values()))
+						.collect(Collectors.toList());
+
+				assertEquals(l_expected, l_actual);
+			}
+		} finally {
+			l_rdr.close();
+		}
+	}
+
+	@Test
+	void rangesMatchSequential() throws IOException {
+		checkRanges(file, CSV.DELIMITER);
+	}
+
+	@Test
+	void rangesMatchSequentialWithLongDelimiter() throws IOException {
+		checkRanges(longDelimFile, LONG_DELIM);
+	}
+}